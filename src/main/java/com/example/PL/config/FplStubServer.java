@@ -0,0 +1,119 @@
+package com.example.PL.config;
+
+import com.example.PL.service.FplArchive;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded HTTP server that replays an {@link FplArchive} under /api, so fplWebClient can run
+ * against a deterministic copy of the FPL API. Latency and error rate are injectable for
+ * throughput / resilience runs.
+ */
+public class FplStubServer {
+
+    private static final String PREFIX = "/api";
+
+    private final Map<String, byte[]> responses;
+    private final Map<String, String> etags = new HashMap<>();
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final double errorRate;
+    private final int errorStatus;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FplStubServer(Path archive,
+                         Duration latency,
+                         Duration latencyJitter,
+                         double errorRate,
+                         int errorStatus) {
+        this.responses = FplArchive.read(archive);
+        this.latency = latency;
+        this.latencyJitter = latencyJitter;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+
+        for (Map.Entry<String, byte[]> e : responses.entrySet()) {
+            CRC32 crc = new CRC32();
+            crc.update(e.getValue());
+            etags.put(e.getKey(), "\"" + Long.toHexString(crc.getValue()) + "\"");
+        }
+    }
+
+    public void start(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext(PREFIX + "/", this::handle);
+        server.start();
+        System.out.println("FPL stub serving " + responses.size() + " recorded responses at " + baseUrl());
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PREFIX;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            sleepLatency();
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(errorStatus, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath().substring(PREFIX.length());
+            if (!path.endsWith("/")) path = path + "/";
+
+            byte[] body = responses.get(path);
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            String etag = etags.get(path);
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private void sleepLatency() {
+        long millis = latency.toMillis();
+        if (!latencyJitter.isZero()) {
+            millis += ThreadLocalRandom.current().nextLong(latencyJitter.toMillis() + 1);
+        }
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
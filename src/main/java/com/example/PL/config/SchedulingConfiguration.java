@@ -0,0 +1,15 @@
+package com.example.PL.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on @Scheduled jobs (bootstrap snapshots, training / prediction schedule).
+ * Set scheduling.enabled=false to run without any background jobs, e.g. for offline benchmarks.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfiguration {
+}
@@ -1,5 +1,8 @@
 package com.example.PL.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
@@ -7,20 +10,49 @@ import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    public WebClient fplWebClient() {
+    public WebClient fplWebClient(
+            @Value("${fpl.base-url:https://fantasy.premierleague.com/api}") String baseUrl,
+            ObjectProvider<FplStubServer> stubServer
+    ) {
         // Added a buffer
         var strategies = ExchangeStrategies.builder()
                 .codecs(cfg -> cfg.defaultCodecs().maxInMemorySize(8 * 1024 * 1024))
                 .build();
 
+        // Replay mode: talk to the local stub instead of the live API
+        FplStubServer stub = stubServer.getIfAvailable();
+
         return WebClient.builder()
-                .baseUrl("https://fantasy.premierleague.com/api")
+                .baseUrl(stub != null ? stub.baseUrl() : baseUrl)
                 .exchangeStrategies(strategies)
                 .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .build();
     }
+
+    /**
+     * Only started when fpl.replay.archive points at a recorded archive.
+     */
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnProperty(name = "fpl.replay.archive")
+    public FplStubServer fplStubServer(
+            @Value("${fpl.replay.archive}") String archive,
+            @Value("${fpl.replay.port:0}") int port,
+            @Value("${fpl.replay.threads:32}") int threads,
+            @Value("${fpl.replay.latency:PT0S}") Duration latency,
+            @Value("${fpl.replay.latency-jitter:PT0S}") Duration latencyJitter,
+            @Value("${fpl.replay.error-rate:0.0}") double errorRate,
+            @Value("${fpl.replay.error-status:503}") int errorStatus
+    ) throws IOException {
+        FplStubServer server = new FplStubServer(Path.of(archive), latency, latencyJitter, errorRate, errorStatus);
+        server.start(port, threads);
+        return server;
+    }
 }
@@ -2,19 +2,29 @@ package com.example.PL.controller;
 
 import com.example.PL.dto.PlayerFeatureRowDto;
 import com.example.PL.service.DatasetService;
+import com.example.PL.service.RangeAggregateService;
+import com.example.PL.service.SeasonHistoryService;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/dataset")
 public class DatasetController {
 
     private final DatasetService datasetService;
+    private final SeasonHistoryService seasonHistory;
+    private final RangeAggregateService rangeAggregates;
 
-    public DatasetController(DatasetService datasetService) {
+    public DatasetController(DatasetService datasetService,
+                             SeasonHistoryService seasonHistory,
+                             RangeAggregateService rangeAggregates) {
         this.datasetService = datasetService;
+        this.seasonHistory = seasonHistory;
+        this.rangeAggregates = rangeAggregates;
     }
 
     @GetMapping(value = "/train.csv", produces = "text/csv")
@@ -24,4 +34,20 @@ public class DatasetController {
                 datasetService.trainingRowsAllPlayers().map(datasetService::toCsvLine)
         );
     }
+
+    @GetMapping(value = "/train-seasons.csv", produces = "text/csv")
+    public Flux<String> trainSeasonsCsv() {
+        return Flux.concat(
+                Flux.just(datasetService.trainingCsvHeader()),
+                seasonHistory.trainingRows().map(datasetService::toCsvLine)
+        );
+    }
+
+    /**
+     * Totals and per-match averages of every stat between two gameweeks, for many players at once.
+     */
+    @PostMapping("/aggregates")
+    public Mono<List<RangeAggregateService.Aggregate>> aggregates(@RequestBody RangeAggregateService.RangeRequest request) {
+        return rangeAggregates.aggregates(request);
+    }
 }
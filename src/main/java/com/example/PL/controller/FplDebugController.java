@@ -2,15 +2,23 @@ package com.example.PL.controller;
 
 import com.example.PL.dto.EnrichedFixtureDto;
 import com.example.PL.dto.EnrichedPlayerDto;
+import com.example.PL.service.BootstrapHistoryService;
+import com.example.PL.service.EnrichedProjectionService;
 import com.example.PL.service.FplClient;
+import com.example.PL.service.FplConcurrencyLimiter;
 import com.example.PL.service.FplLookupService;
-import tools.jackson.databind.JsonNode;
+import com.example.PL.service.FplPassthroughCache;
+import com.example.PL.service.FplResponseCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
 
-import java.time.OffsetDateTime;
+import java.time.Instant;
 import java.util.*;
 
 @RestController
@@ -21,106 +29,91 @@ public class FplDebugController {
     private final FplClient fplClient;
     private final FplLookupService lookupService;
     private final FplLookupService fplLookupService;
+    private final BootstrapHistoryService bootstrapHistory;
+    private final EnrichedProjectionService enrichedProjections;
+    private final FplPassthroughCache passthroughCache;
 
     @GetMapping("/bootstrap")
-    public Mono<JsonNode> bootstrap() {
-        return fplClient.getBootstrapStatic();
+    public Mono<ResponseEntity<byte[]>> bootstrap(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return passthroughCache.bootstrapStatic().map(e -> passthrough(e, ifNoneMatch, acceptEncoding));
     }
 
     @GetMapping("/fixtures")
-    public Mono<JsonNode> fixtures() {
-        return fplClient.getFixtures();
+    public Mono<ResponseEntity<byte[]>> fixtures(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return passthroughCache.fixtures().map(e -> passthrough(e, ifNoneMatch, acceptEncoding));
     }
 
-    @GetMapping("/player/{id}")
-    public Mono<Map<Integer, String>> player(@PathVariable int id) {
-        return fplLookupService.getPlayerIdToNameMap();
-    }
-
-    @GetMapping("/players/enriched")
-    public List<EnrichedPlayerDto> playersEnriched() {
-
-        JsonNode bootstrap = fplClient.getBootstrapStatic().block();
-
-        JsonNode teamsNode = bootstrap.get("teams");
-        JsonNode positionsNode = bootstrap.get("element_types");
-        JsonNode playersNode = bootstrap.get("elements");
-
-        // Build teamId -> teamName map
-        Map<Integer, String> teamMap = new HashMap<>();
-        for (int i = 0; i < teamsNode.size(); i++) {
-            JsonNode t = teamsNode.get(i);
-            teamMap.put(
-                    t.get("id").asInt(),
-                    t.get("name").asText()
-            );
+    // Upstream bytes as-is, gzip'd when the client accepts it; 304 when the client's copy is current
+    private static ResponseEntity<byte[]> passthrough(FplPassthroughCache.Entry entry,
+                                                      String ifNoneMatch,
+                                                      String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? entry.gzipEtag() : entry.etag();
+
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
         }
 
-        // Build positionId -> positionName map
-        Map<Integer, String> posMap = new HashMap<>();
-        for (int i = 0; i < positionsNode.size(); i++) {
-            JsonNode p = positionsNode.get(i);
-            posMap.put(
-                    p.get("id").asInt(),
-                    p.get("singular_name").asText()
-            );
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzip());
         }
-
-        // Build enriched players list
-        List<EnrichedPlayerDto> result = new ArrayList<>();
-        for (int i = 0; i < playersNode.size(); i++) {
-            JsonNode p = playersNode.get(i);
-
-            int playerId = p.get("id").asInt();
-            int teamId = p.get("team").asInt();
-            int positionId = p.get("element_type").asInt();
-
-            result.add(new EnrichedPlayerDto(
-                    playerId,
-                    p.get("web_name").asText(),
-                    p.get("first_name").asText(),
-                    p.get("second_name").asText(),
-                    teamId,
-                    teamMap.getOrDefault(teamId, "UNKNOWN"),
-                    positionId,
-                    posMap.getOrDefault(positionId, "UNKNOWN"),
-                    p.has("now_cost") ? p.get("now_cost").asInt() : null,
-                    p.get("status").asText()
-            ));
-        }
-
-        return result;
+        return ok.body(entry.raw());
     }
 
-    @GetMapping("/fixtures/enriched")
-    public List<EnrichedFixtureDto> fixturesEnriched() {
-        JsonNode fixtures = fplClient.getFixtures().block();
-        Map<Integer, String> teamMap = lookupService.getTeamIdToNameMap().block();
-
-        List<EnrichedFixtureDto> out = new ArrayList<>();
+    @GetMapping("/cache/stats")
+    public FplResponseCache.Stats cacheStats() {
+        return fplClient.cacheStats();
+    }
 
-        for (int i = 0; i < fixtures.size(); i++) {
-            JsonNode f = fixtures.get(i);
+    @GetMapping("/limiter/stats")
+    public FplConcurrencyLimiter.Stats limiterStats() {
+        return fplClient.limiterStats();
+    }
 
-            int fixtureId = f.get("id").asInt();
-            Integer gw = f.get("event").isNull() ? null : f.get("event").asInt();
+    @GetMapping("/history/player/{id}")
+    public Map<String, Object> playerFieldAt(@PathVariable int id,
+                                             @RequestParam BootstrapHistoryService.Field field,
+                                             @RequestParam(required = false) Instant at) {
+        Instant when = at == null ? Instant.now() : at;
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("playerId", id);
+        out.put("field", field);
+        out.put("at", when);
+        out.put("value", bootstrapHistory.valueAt(id, field, when));
+        return out;
+    }
 
-            String kickoffStr = f.get("kickoff_time").isNull() ? null : f.get("kickoff_time").asText();
-            OffsetDateTime kickoff = kickoffStr == null ? null : OffsetDateTime.parse(kickoffStr);
+    @GetMapping("/history/changes")
+    public List<BootstrapHistoryService.Change> changes(@RequestParam Instant from,
+                                                       @RequestParam(required = false) Instant to) {
+        return bootstrapHistory.changesBetween(from, to == null ? Instant.now() : to);
+    }
 
-            int homeId = f.get("team_h").asInt();
-            int awayId = f.get("team_a").asInt();
+    @GetMapping("/player/{id}")
+    public Mono<Map<Integer, String>> player(@PathVariable int id) {
+        return fplLookupService.getPlayerIdToNameMap();
+    }
 
-            out.add(new EnrichedFixtureDto(
-                    fixtureId, gw, kickoff,
-                    homeId, teamMap.getOrDefault(homeId, "UNKNOWN"),
-                    awayId, teamMap.getOrDefault(awayId, "UNKNOWN"),
-                    f.get("finished").asBoolean(false),
-                    f.get("team_h_score").isNull() ? null : f.get("team_h_score").asInt(),
-                    f.get("team_a_score").isNull() ? null : f.get("team_a_score").isNull() ? null : f.get("team_a_score").asInt()
-            ));
-        }
+    @GetMapping("/players/enriched")
+    public Mono<List<EnrichedPlayerDto>> playersEnriched(@RequestParam(required = false) Integer team,
+                                                         @RequestParam(required = false) Integer position) {
+        return enrichedProjections.players(team, position);
+    }
 
-        return out;
+    @GetMapping("/fixtures/enriched")
+    public Mono<List<EnrichedFixtureDto>> fixturesEnriched(@RequestParam(required = false) Integer gameweek,
+                                                           @RequestParam(required = false) Integer team) {
+        return enrichedProjections.fixtures(gameweek, team);
     }
 }
@@ -1,5 +1,7 @@
 package com.example.PL.dto;
 
+import java.util.Map;
+
 public record PlayerFeatureRowDto(
         int playerId,
         String playerName,
@@ -26,6 +28,10 @@ public record PlayerFeatureRowDto(
         double avgYellow5,
         double avgRed5,
 
+        // Configured extra windows and season-to-date averages (FeatureSpec), e.g. avgPoints3 -> 4.33,
+        // then exponentially weighted form (FormFeatureService), e.g. ewmaPointsH4 -> 5.1
+        Map<String, Double> features,
+
         // Label (training only). null for prediction rows.
         Integer labelTotalPoints
 ) {
@@ -0,0 +1,35 @@
+package com.example.PL.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Pointer from a gameweek to the prediction run it currently serves. Switched with a single
+ * upsert once a run's rows are all in the log, so readers see the old run or the new one, never a mix.
+ */
+@Entity
+@Table(name = "prediction_current")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CurrentPrediction {
+
+    @Id
+    private Integer gameweek;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "model_version", nullable = false, length = 64)
+    private String modelVersion;
+
+    @Column(name = "prediction_count", nullable = false)
+    private Integer predictionCount;
+
+    @Column(name = "switched_at", nullable = false)
+    private Instant switchedAt;
+}
@@ -0,0 +1,38 @@
+package com.example.PL.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Shared (L2) copy of a raw FPL response, gzip'd, so app instances can reuse each other's fetches.
+ * The lease columns let one instance claim the refresh while the others wait for it.
+ */
+@Entity
+@Table(name = "fpl_cache_entries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FplCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", nullable = false, length = 128)
+    private String cacheKey;
+
+    @Column(name = "body", columnDefinition = "bytea")
+    private byte[] body;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "fetched_at")
+    private Instant fetchedAt;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+}
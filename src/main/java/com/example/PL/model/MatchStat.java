@@ -0,0 +1,96 @@
+package com.example.PL.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One player's stats in one fixture. Mirrors FeatureBuilderService.MatchStats, keyed by
+ * (season, player, fixture) since fixture ids restart every season. Rows are written in bulk by
+ * MatchStatsTable, not through JPA.
+ */
+@Entity
+@Table(name = "match_stats",
+        indexes = @Index(name = "idx_match_stats_season_player", columnList = "season, player_id, round"))
+@IdClass(MatchStat.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchStat {
+
+    @Id
+    @Column(nullable = false, length = 9)
+    private String season;
+
+    @Id
+    @Column(name = "player_id", nullable = false)
+    private Integer playerId;
+
+    @Id
+    @Column(name = "fixture_id", nullable = false)
+    private Integer fixtureId;
+
+    private Integer round;
+
+    @Column(nullable = false)
+    private Integer minutes;
+
+    @Column(nullable = false)
+    private Integer goals;
+
+    @Column(nullable = false)
+    private Integer assists;
+
+    @Column(name = "clean_sheets", nullable = false)
+    private Integer cleanSheets;
+
+    @Column(nullable = false)
+    private Integer saves;
+
+    @Column(nullable = false)
+    private Integer bonus;
+
+    @Column(name = "goals_conceded", nullable = false)
+    private Integer goalsConceded;
+
+    @Column(nullable = false)
+    private Integer cbi;
+
+    @Column(nullable = false)
+    private Integer yellow;
+
+    @Column(nullable = false)
+    private Integer red;
+
+    @Column(name = "own_goals", nullable = false)
+    private Integer ownGoals;
+
+    @Column(name = "penalties_saved", nullable = false)
+    private Integer penaltiesSaved;
+
+    @Column(name = "penalties_missed", nullable = false)
+    private Integer penaltiesMissed;
+
+    @Column(name = "opponent_team_id", nullable = false)
+    private Integer opponentTeamId;
+
+    @Column(name = "was_home", nullable = false)
+    private Boolean wasHome;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String season;
+        private Integer playerId;
+        private Integer fixtureId;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.PL.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Stored feature vector for one player going into one fixture: the rolling features over the
+ * matches before it, plus the points scored in it once the fixture is finished (null until then).
+ * Keyed by (player, gameweek, fixture) so both matches of a double gameweek get their own vector.
+ */
+@Entity
+@Table(name = "player_features",
+        indexes = @Index(name = "idx_player_features_version", columnList = "feature_version, player_id"))
+@IdClass(PlayerFeatureVector.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlayerFeatureVector {
+
+    @Id
+    @Column(name = "player_id", nullable = false)
+    private Integer playerId;
+
+    @Id
+    @Column(nullable = false)
+    private Integer gameweek;
+
+    @Id
+    @Column(name = "fixture_id", nullable = false)
+    private Integer fixtureId;
+
+    @Column(name = "feature_version", nullable = false, length = 32)
+    private String featureVersion;
+
+    @Column(name = "history_index", nullable = false)
+    private Integer historyIndex;
+
+    // MatchHistory.hash over the matches this vector was built from, its labelled match included
+    @Column(name = "history_hash")
+    private Long historyHash;
+
+    @Column(name = "is_home", nullable = false)
+    private Boolean isHome;
+
+    @Column(name = "opponent_team_id", nullable = false)
+    private Integer opponentTeamId;
+
+    @Column(name = "team_id", nullable = false)
+    private Integer teamId;
+
+    @Column(name = "fixture_difficulty")
+    private Integer fixtureDifficulty;
+
+    private Double avgMinutes;
+    private Double avgPoints;
+    private Double avgGoals;
+    private Double avgAssists;
+    private Double avgSaves;
+    private Double avgCleanSheets;
+    private Double avgBonus;
+    private Double avgGoalsConceded;
+    private Double avgCbi;
+    private Double avgYellow;
+    private Double avgRed;
+
+    // PlayerFeatureRowDto.features values, in DatasetService.featureNames() order
+    @Column(name = "window_features")
+    private double[] windowFeatures;
+
+    @Column(name = "label_points")
+    private Integer labelPoints;
+
+    @Column(name = "computed_at", nullable = false)
+    private Instant computedAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Integer playerId;
+        private Integer gameweek;
+        private Integer fixtureId;
+    }
+}
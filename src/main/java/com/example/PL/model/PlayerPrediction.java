@@ -5,9 +5,16 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 
+/**
+ * One row of the append-only prediction log. Every generation run writes a fresh set of rows
+ * under its own runId; which run a gameweek currently serves is recorded in CurrentPrediction.
+ * The current-prediction reads filter on (gameweek, run_id), which is all the index holds: a
+ * run is a few hundred rows, cheap to fetch from the table, and the log stays written once.
+ */
 @Entity
-@Table(name = "player_predictions",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"player_id", "gameweek"}))
+@Table(name = "player_prediction_log",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"player_id", "gameweek", "model_version", "run_id"}),
+        indexes = @Index(name = "idx_prediction_log_gameweek_run", columnList = "gameweek, run_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -34,19 +41,23 @@ public class PlayerPrediction {
     @Column(name = "prediction_date", nullable = false)
     private LocalDateTime predictionDate;
 
-    @Column(name = "model_version")
+    @Column(name = "model_version", nullable = false, length = 64)
     private String modelVersion;
 
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
     @Column(name = "actual_points")
     private Integer actualPoints;  // To track accuracy later
 
     public PlayerPrediction(Integer playerId, Integer gameweek, Integer fixtureId,
-                            Double predictedPoints, String modelVersion) {
+                            Double predictedPoints, String modelVersion, Long runId) {
         this.playerId = playerId;
         this.gameweek = gameweek;
         this.fixtureId = fixtureId;
         this.predictedPoints = predictedPoints;
         this.modelVersion = modelVersion;
+        this.runId = runId;
         this.predictionDate = LocalDateTime.now();
     }
 }
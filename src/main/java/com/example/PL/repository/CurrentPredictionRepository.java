@@ -0,0 +1,28 @@
+package com.example.PL.repository;
+
+import com.example.PL.model.CurrentPrediction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface CurrentPredictionRepository extends JpaRepository<CurrentPrediction, Integer> {
+
+    /**
+     * Point a gameweek at a run in one statement. Never moves the pointer back to an older run, so a
+     * slow run finishing after a newer one leaves the newer one current; returns 0 in that case.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO prediction_current (gameweek, run_id, model_version, prediction_count, switched_at) " +
+            "VALUES (:gameweek, :runId, :modelVersion, :predictionCount, :switchedAt) " +
+            "ON CONFLICT (gameweek) DO UPDATE SET run_id = EXCLUDED.run_id, model_version = EXCLUDED.model_version, " +
+            "prediction_count = EXCLUDED.prediction_count, switched_at = EXCLUDED.switched_at " +
+            "WHERE prediction_current.run_id < EXCLUDED.run_id",
+            nativeQuery = true)
+    int switchTo(Integer gameweek, Long runId, String modelVersion, Integer predictionCount, Instant switchedAt);
+}
@@ -0,0 +1,53 @@
+package com.example.PL.repository;
+
+import com.example.PL.model.FplCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface FplCacheEntryRepository extends JpaRepository<FplCacheEntry, String> {
+
+    /**
+     * Make sure a row exists so there is something to lease
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO fpl_cache_entries (cache_key, version) VALUES (:key, 0) ON CONFLICT (cache_key) DO NOTHING",
+            nativeQuery = true)
+    int insertIfMissing(String key);
+
+    /**
+     * Claim the refresh for this key unless another instance holds a live lease. Returns 1 if claimed.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE fpl_cache_entries SET lease_owner = :owner, lease_until = :until " +
+            "WHERE cache_key = :key AND (lease_until IS NULL OR lease_until < :now)",
+            nativeQuery = true)
+    int tryLease(String key, String owner, Instant now, Instant until);
+
+    /**
+     * Publish a freshly fetched body, bump the version and release the lease
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE fpl_cache_entries SET body = :body, version = version + 1, fetched_at = :fetchedAt, " +
+            "lease_owner = NULL, lease_until = NULL WHERE cache_key = :key",
+            nativeQuery = true)
+    int publish(String key, byte[] body, Instant fetchedAt);
+
+    /**
+     * Give up a lease without publishing (the fetch failed)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE fpl_cache_entries SET lease_owner = NULL, lease_until = NULL " +
+            "WHERE cache_key = :key AND lease_owner = :owner",
+            nativeQuery = true)
+    int releaseLease(String key, String owner);
+}
@@ -0,0 +1,72 @@
+package com.example.PL.repository;
+
+import com.example.PL.model.PlayerFeatureVector;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PlayerFeatureVectorRepository extends JpaRepository<PlayerFeatureVector, PlayerFeatureVector.Key> {
+
+    /**
+     * Finished-fixture vectors (the training set), in match order per player
+     */
+    @Query("SELECT v FROM PlayerFeatureVector v WHERE v.featureVersion = :version AND v.labelPoints IS NOT NULL " +
+            "ORDER BY v.playerId, v.historyIndex")
+    List<PlayerFeatureVector> findTraining(String version);
+
+    /**
+     * Vectors for upcoming fixtures (the prediction set)
+     */
+    @Query("SELECT v FROM PlayerFeatureVector v WHERE v.featureVersion = :version AND v.labelPoints IS NULL")
+    List<PlayerFeatureVector> findUpcoming(String version);
+
+    /**
+     * Each player's labelled vector with the highest history index, as [playerId, historyIndex, historyHash]
+     */
+    @Query("SELECT v.playerId, v.historyIndex, v.historyHash FROM PlayerFeatureVector v " +
+            "WHERE v.featureVersion = :version AND v.labelPoints IS NOT NULL AND v.historyIndex = " +
+            "(SELECT MAX(w.historyIndex) FROM PlayerFeatureVector w " +
+            "WHERE w.featureVersion = :version AND w.labelPoints IS NOT NULL AND w.playerId = v.playerId)")
+    List<Object[]> lastStored(String version);
+
+    @Query("SELECT COUNT(v) FROM PlayerFeatureVector v WHERE v.featureVersion <> :version")
+    long countOtherVersions(String version);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PlayerFeatureVector v WHERE v.featureVersion <> :version")
+    int deleteOtherVersions(String version);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PlayerFeatureVector v WHERE v.featureVersion = :version AND v.labelPoints IS NULL")
+    int deleteUpcoming(String version);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PlayerFeatureVector v WHERE v.featureVersion = :version AND v.labelPoints IS NOT NULL " +
+            "AND v.playerId IN :playerIds")
+    int deleteTraining(String version, Collection<Integer> playerIds);
+
+    /**
+     * One update of the store: drop the upcoming vectors and the training vectors of players being
+     * rebuilt, then save the new ones. All or nothing, so a failure part way never leaves the store
+     * without upcoming vectors or with half a player's training rows.
+     */
+    @Transactional
+    default void replace(String version,
+                         Collection<Integer> rebuiltPlayers,
+                         List<PlayerFeatureVector> training,
+                         List<PlayerFeatureVector> upcoming) {
+        deleteUpcoming(version);
+        if (!rebuiltPlayers.isEmpty()) deleteTraining(version, rebuiltPlayers);
+        saveAll(training);
+        saveAll(upcoming);
+    }
+}
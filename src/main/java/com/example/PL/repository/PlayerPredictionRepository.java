@@ -3,8 +3,10 @@ package com.example.PL.repository;
 import com.example.PL.model.PlayerPrediction;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,28 +15,44 @@ import java.util.Optional;
 public interface PlayerPredictionRepository extends JpaRepository<PlayerPrediction, Long> {
 
     /**
-     * Find prediction for a specific player in a specific gameweek
+     * Current prediction for a specific player in a specific gameweek
      */
-    Optional<PlayerPrediction> findByPlayerIdAndGameweek(Integer playerId, Integer gameweek);
+    @Query("SELECT p FROM PlayerPrediction p, CurrentPrediction c " +
+            "WHERE c.gameweek = :gameweek AND p.gameweek = c.gameweek AND p.runId = c.runId AND p.playerId = :playerId")
+    Optional<PlayerPrediction> findCurrentByPlayerIdAndGameweek(Integer playerId, Integer gameweek);
 
     /**
-     * Get all predictions for a gameweek
+     * All current predictions for a gameweek
      */
-    List<PlayerPrediction> findByGameweek(Integer gameweek);
+    @Query("SELECT p FROM PlayerPrediction p, CurrentPrediction c " +
+            "WHERE c.gameweek = :gameweek AND p.gameweek = c.gameweek AND p.runId = c.runId")
+    List<PlayerPrediction> findCurrentByGameweek(Integer gameweek);
 
     /**
-     * Get top N predictions for a gameweek, ordered by predicted points
+     * Top N current predictions for a gameweek, ordered by predicted points
      */
-    @Query("SELECT p FROM PlayerPrediction p WHERE p.gameweek = :gameweek ORDER BY p.predictedPoints DESC")
-    List<PlayerPrediction> findTopByGameweekOrderByPredictedPointsDesc(Integer gameweek, Pageable pageable);
+    @Query("SELECT p FROM PlayerPrediction p, CurrentPrediction c " +
+            "WHERE c.gameweek = :gameweek AND p.gameweek = c.gameweek AND p.runId = c.runId " +
+            "ORDER BY p.predictedPoints DESC")
+    List<PlayerPrediction> findCurrentTopByGameweek(Integer gameweek, Pageable pageable);
 
     /**
-     * Delete all predictions for a gameweek (useful for regenerating)
+     * Next run id; the sequence is created by PredictionLogService on startup
      */
-    void deleteByGameweek(Integer gameweek);
+    @Query(value = "SELECT nextval('prediction_run_seq')", nativeQuery = true)
+    Long nextRunId();
 
     /**
-     * Check if predictions exist for a gameweek
+     * Every run in the log, as [gameweek, runId] pairs
      */
-    boolean existsByGameweek(Integer gameweek);
+    @Query("SELECT DISTINCT p.gameweek, p.runId FROM PlayerPrediction p")
+    List<Object[]> findRuns();
+
+    /**
+     * Drop one superseded run; each call is its own short transaction
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PlayerPrediction p WHERE p.gameweek = :gameweek AND p.runId = :runId")
+    int deleteRun(Integer gameweek, Long runId);
 }
@@ -0,0 +1,330 @@
+package com.example.PL.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only time series of bootstrap-static player rows (price, status, form, transfers, ...).
+ *
+ * Each stored frame only holds the fields that changed since the previous frame, as zig-zag
+ * varint deltas, so a season of hourly snapshots stays in the low MBs. The whole series is
+ * replayed into per-(player, field) arrays at startup for point-in-time queries.
+ */
+@Service
+public class BootstrapHistoryService {
+
+    /**
+     * Tracked player fields. Decimals are stored x10 (form 5.2 -> 52), status as its char code,
+     * and a null chance of playing as -1.
+     */
+    public enum Field {
+        NOW_COST, STATUS, FORM_X10, SELECTED_BY_X10, TRANSFERS_IN_EVENT, TRANSFERS_OUT_EVENT,
+        TOTAL_POINTS, CHANCE_NEXT_ROUND
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    public record Change(Instant at, int playerId, Field field, Integer oldValue, int newValue) {}
+
+    private final FplLookupService lookupService;
+    private final Path file;
+    private final boolean enabled;
+
+    private final Object lock = new Object();
+    private final Map<Integer, int[]> latest = new HashMap<>();
+    private final Map<Long, Series> series = new HashMap<>();
+    private final List<Frame> frames = new ArrayList<>();
+    private Instant lastRecorded = Instant.EPOCH;
+
+    private record Frame(long epochMillis, int[] playerIds, byte[] fields, int[] oldValues, int[] newValues) {}
+
+    private static final class Series {
+        long[] times = new long[8];
+        int[] values = new int[8];
+        int size;
+
+        void add(long t, int v) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            times[size] = t;
+            values[size] = v;
+            size++;
+        }
+
+        Integer valueAt(long t) {
+            int i = Arrays.binarySearch(times, 0, size, t);
+            if (i < 0) i = -i - 2; // last change at or before t
+            return i < 0 ? null : values[i];
+        }
+    }
+
+    public BootstrapHistoryService(FplLookupService lookupService,
+                                   @Value("${fpl.snapshots.file:.fpl-cache/bootstrap-series.bin}") String file,
+                                   @Value("${fpl.snapshots.enabled:true}") boolean enabled) {
+        this.lookupService = lookupService;
+        this.file = Path.of(file);
+        this.enabled = enabled;
+        if (enabled) load();
+    }
+
+    @Scheduled(fixedDelayString = "${fpl.snapshots.interval:PT1H}", initialDelayString = "PT1M")
+    public void scheduledSnapshot() {
+        if (!enabled) return;
+        lookupService.getSnapshot()
+                .subscribe(
+                        this::record,
+                        error -> System.err.println("✗ Bootstrap snapshot failed: " + error.getMessage())
+                );
+    }
+
+    /**
+     * Diff a snapshot against the last recorded state and append the changes.
+     * Returns how many field changes were stored (0 if the snapshot was already recorded).
+     */
+    public int record(BootstrapSnapshot snapshot) {
+        synchronized (lock) {
+            if (!snapshot.fetchedAt().isAfter(lastRecorded)) return 0;
+
+            long t = snapshot.fetchedAt().toEpochMilli();
+            List<int[]> changes = new ArrayList<>(); // {playerId, field, old, new, hadOld}
+            for (BootstrapSnapshot.Player p : snapshot.players()) {
+                int[] now = valuesOf(p);
+                int[] prev = latest.get(p.id());
+                for (int f = 0; f < FIELDS.length; f++) {
+                    if (prev == null || prev[f] != now[f]) {
+                        changes.add(new int[]{p.id(), f, prev == null ? 0 : prev[f], now[f], prev == null ? 0 : 1});
+                    }
+                }
+            }
+
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(16 + changes.size() * 6);
+            writeLong(payload, t);
+            writeVarint(payload, changes.size());
+            for (int[] c : changes) {
+                writeVarint(payload, c[0]);
+                payload.write(c[1]);
+                writeVarint(payload, zigzag(c[3] - c[2]));
+            }
+            append(payload.toByteArray());
+
+            apply(t, changes);
+            lastRecorded = snapshot.fetchedAt();
+            return changes.size();
+        }
+    }
+
+    /**
+     * Value of a field for one player as of a point in time, or null if we hadn't seen them yet.
+     */
+    public Integer valueAt(int playerId, Field field, Instant at) {
+        synchronized (lock) {
+            Series s = series.get(key(playerId, field));
+            return s == null ? null : s.valueAt(at.toEpochMilli());
+        }
+    }
+
+    /**
+     * Every field change recorded in [from, to], oldest first.
+     */
+    public List<Change> changesBetween(Instant from, Instant to) {
+        long lo = from.toEpochMilli();
+        long hi = to.toEpochMilli();
+        List<Change> out = new ArrayList<>();
+        synchronized (lock) {
+            for (Frame fr : frames) {
+                if (fr.epochMillis() < lo) continue;
+                if (fr.epochMillis() > hi) break;
+                Instant at = Instant.ofEpochMilli(fr.epochMillis());
+                for (int i = 0; i < fr.playerIds().length; i++) {
+                    int oldValue = fr.oldValues()[i];
+                    out.add(new Change(
+                            at,
+                            fr.playerIds()[i],
+                            FIELDS[fr.fields()[i]],
+                            oldValue == Integer.MIN_VALUE ? null : oldValue,
+                            fr.newValues()[i]
+                    ));
+                }
+            }
+        }
+        return out;
+    }
+
+    public int frameCount() {
+        synchronized (lock) {
+            return frames.size();
+        }
+    }
+
+    private void apply(long t, List<int[]> changes) {
+        int n = changes.size();
+        int[] ids = new int[n];
+        byte[] fields = new byte[n];
+        int[] olds = new int[n];
+        int[] news = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            int[] c = changes.get(i);
+            ids[i] = c[0];
+            fields[i] = (byte) c[1];
+            olds[i] = c[4] == 1 ? c[2] : Integer.MIN_VALUE;
+            news[i] = c[3];
+
+            latest.computeIfAbsent(c[0], k -> new int[FIELDS.length])[c[1]] = c[3];
+            series.computeIfAbsent(key(c[0], FIELDS[c[1]]), k -> new Series()).add(t, c[3]);
+        }
+        frames.add(new Frame(t, ids, fields, olds, news));
+    }
+
+    /**
+     * Replay every complete frame. A torn tail (a write cut off part way) is cut back to the end of
+     * the last complete frame, so the next append starts on a frame boundary rather than after the
+     * torn bytes, where every later length prefix would be misread.
+     */
+    private void load() {
+        long size;
+        long valid = 0;
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(raw)) {
+            size = Files.size(file);
+            while (true) {
+                int len;
+                try {
+                    len = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (len < 0 || len > size - valid - 4) break;
+                byte[] payload = new byte[len];
+                try {
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    replay(ByteBuffer.wrap(payload));
+                } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                    break;
+                }
+                valid += 4 + len;
+            }
+            System.out.println("Loaded " + frames.size() + " bootstrap snapshots from " + file);
+        } catch (NoSuchFileException e) {
+            // first run
+            return;
+        } catch (IOException e) {
+            System.err.println("Failed to load bootstrap snapshots from " + file + ": " + e.getMessage());
+            return;
+        }
+
+        if (valid < size) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(valid);
+                ch.force(true);
+                System.err.println("Truncated " + (size - valid) + " bytes of torn last frame from " + file);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to truncate torn last frame in " + file, e);
+            }
+        }
+    }
+
+    private void replay(ByteBuffer buf) {
+        long t = buf.getLong();
+        int count = readVarint(buf);
+        List<int[]> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int playerId = readVarint(buf);
+            int f = buf.get();
+            int delta = unzigzag(readVarint(buf));
+            int[] prev = latest.get(playerId);
+            boolean hadOld = prev != null;
+            int old = hadOld ? prev[f] : 0;
+            changes.add(new int[]{playerId, f, old, old + delta, hadOld ? 1 : 0});
+        }
+        apply(t, changes);
+        lastRecorded = Instant.ofEpochMilli(t);
+    }
+
+    private void append(byte[] payload) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(ByteBuffer.allocate(4).putInt(payload.length).array());
+                out.write(payload);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to append bootstrap snapshot to " + file, e);
+        }
+    }
+
+    private static int[] valuesOf(BootstrapSnapshot.Player p) {
+        int[] v = new int[FIELDS.length];
+        v[Field.NOW_COST.ordinal()] = p.nowCost() == null ? 0 : p.nowCost();
+        v[Field.STATUS.ordinal()] = p.status() == null || p.status().isEmpty() ? 0 : p.status().charAt(0);
+        v[Field.FORM_X10.ordinal()] = (int) Math.round(p.form() * 10);
+        v[Field.SELECTED_BY_X10.ordinal()] = (int) Math.round(p.selectedByPercent() * 10);
+        v[Field.TRANSFERS_IN_EVENT.ordinal()] = p.transfersInEvent();
+        v[Field.TRANSFERS_OUT_EVENT.ordinal()] = p.transfersOutEvent();
+        v[Field.TOTAL_POINTS.ordinal()] = p.totalPoints();
+        v[Field.CHANCE_NEXT_ROUND.ordinal()] = p.chanceOfPlayingNextRound() == null ? -1 : p.chanceOfPlayingNextRound();
+        return v;
+    }
+
+    private static long key(int playerId, Field field) {
+        return ((long) playerId << 8) | field.ordinal();
+    }
+
+    private static int zigzag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int unzigzag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarint(ByteBuffer buf) {
+        int result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buf.get();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+            shift += 7;
+        }
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long v) {
+        out.writeBytes(ByteBuffer.allocate(8).putLong(v).array());
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.PL.service;
+
+import tools.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, typed copy of /bootstrap-static/ parsed once and shared by every lookup.
+ * The id maps and the dense PlayerTable are built once here so callers only ever read them;
+ * hot loops should prefer the table.
+ */
+public record BootstrapSnapshot(
+        Instant fetchedAt,
+        List<Player> players,
+        List<Team> teams,
+        List<Position> positions,
+        List<Event> events,
+
+        List<Integer> playerIds,
+        Map<Integer, String> playerWebNames,
+        Map<Integer, Integer> playerPositionIds,
+        Map<Integer, Integer> playerTeamIds,
+        Map<Integer, String> positionNames,
+        Map<Integer, String> teamNames,
+        PlayerTable table
+) {
+
+    public record Player(
+            int id,
+            String webName,
+            String firstName,
+            String secondName,
+            int teamId,
+            int positionId,
+            Integer nowCost,
+            String status,
+            double form,
+            double selectedByPercent,
+            int transfersInEvent,
+            int transfersOutEvent,
+            int totalPoints,
+            Integer chanceOfPlayingNextRound
+    ) {}
+
+    public record Team(int id, String name, String shortName) {}
+
+    public record Position(int id, String singularName) {}
+
+    public record Event(
+            int id,
+            OffsetDateTime deadlineTime,
+            boolean finished,
+            boolean isCurrent,
+            boolean isNext
+    ) {}
+
+    public static BootstrapSnapshot fromJson(JsonNode bootstrap, Instant fetchedAt) {
+        List<Player> players = new ArrayList<>();
+        for (JsonNode p : bootstrap.get("elements")) {
+            players.add(new Player(
+                    p.get("id").asInt(),
+                    p.get("web_name").asText(),
+                    p.get("first_name").asText(),
+                    p.get("second_name").asText(),
+                    p.get("team").asInt(),
+                    p.get("element_type").asInt(),
+                    p.has("now_cost") ? p.get("now_cost").asInt() : null,
+                    p.get("status").asText(),
+                    decimal(p.get("form")),
+                    decimal(p.get("selected_by_percent")),
+                    intOrZero(p.get("transfers_in_event")),
+                    intOrZero(p.get("transfers_out_event")),
+                    intOrZero(p.get("total_points")),
+                    (p.get("chance_of_playing_next_round") == null || p.get("chance_of_playing_next_round").isNull())
+                            ? null
+                            : p.get("chance_of_playing_next_round").asInt()
+            ));
+        }
+
+        List<Team> teams = new ArrayList<>();
+        for (JsonNode t : bootstrap.get("teams")) {
+            teams.add(new Team(t.get("id").asInt(), t.get("name").asText(), t.get("short_name").asText()));
+        }
+
+        List<Position> positions = new ArrayList<>();
+        for (JsonNode t : bootstrap.get("element_types")) {
+            positions.add(new Position(t.get("id").asInt(), t.get("singular_name").asText())); // "Goalkeeper"
+        }
+
+        List<Event> events = new ArrayList<>();
+        JsonNode eventsNode = bootstrap.get("events");
+        if (eventsNode != null) {
+            for (JsonNode e : eventsNode) {
+                JsonNode deadline = e.get("deadline_time");
+                events.add(new Event(
+                        e.get("id").asInt(),
+                        (deadline == null || deadline.isNull()) ? null : OffsetDateTime.parse(deadline.asText()),
+                        e.get("finished").asBoolean(false),
+                        e.get("is_current").asBoolean(false),
+                        e.get("is_next").asBoolean(false)
+                ));
+            }
+        }
+
+        return of(fetchedAt, players, teams, positions, events);
+    }
+
+    public static BootstrapSnapshot of(Instant fetchedAt,
+                                       List<Player> players,
+                                       List<Team> teams,
+                                       List<Position> positions,
+                                       List<Event> events) {
+        List<Integer> ids = new ArrayList<>(players.size());
+        Map<Integer, String> webNames = new HashMap<>();
+        Map<Integer, Integer> positionIds = new HashMap<>();
+        Map<Integer, Integer> teamIds = new HashMap<>();
+        for (Player p : players) {
+            ids.add(p.id());
+            webNames.put(p.id(), p.webName());
+            positionIds.put(p.id(), p.positionId());
+            teamIds.put(p.id(), p.teamId());
+        }
+
+        Map<Integer, String> posNames = new HashMap<>();
+        for (Position p : positions) posNames.put(p.id(), p.singularName());
+
+        Map<Integer, String> teamNames = new HashMap<>();
+        for (Team t : teams) teamNames.put(t.id(), t.name());
+
+        return new BootstrapSnapshot(
+                fetchedAt,
+                List.copyOf(players),
+                List.copyOf(teams),
+                List.copyOf(positions),
+                List.copyOf(events),
+                Collections.unmodifiableList(ids),
+                Collections.unmodifiableMap(webNames),
+                Collections.unmodifiableMap(positionIds),
+                Collections.unmodifiableMap(teamIds),
+                Collections.unmodifiableMap(posNames),
+                Collections.unmodifiableMap(teamNames),
+                PlayerTable.of(players, teams, positions)
+        );
+    }
+
+    // FPL sends form / selected_by_percent as strings like "5.2"
+    private static double decimal(JsonNode n) {
+        if (n == null || n.isNull()) return 0.0;
+        try {
+            return Double.parseDouble(n.asText());
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    private static int intOrZero(JsonNode n) {
+        return (n == null || n.isNull()) ? 0 : n.asInt();
+    }
+
+    /**
+     * Deadline of the next gameweek, or null at the end of the season.
+     * Once this passes the snapshot describes the previous gameweek.
+     */
+    public OffsetDateTime nextDeadline() {
+        for (Event e : events) {
+            if (e.isNext()) return e.deadlineTime();
+        }
+        return null;
+    }
+
+    /**
+     * Season label like "2025-26", from the year of the GW1 deadline; null if there are no events.
+     */
+    public String season() {
+        for (Event e : events) {
+            if (e.deadlineTime() == null) continue;
+            int start = e.deadlineTime().getMonthValue() >= 7
+                    ? e.deadlineTime().getYear()
+                    : e.deadlineTime().getYear() - 1;
+            return start + "-" + String.format("%02d", (start + 1) % 100);
+        }
+        return null;
+    }
+
+    /**
+     * Current gameweek id, falling back to the next one before GW1 kicks off.
+     */
+    public Integer currentGameweek() {
+        for (Event e : events) {
+            if (e.isCurrent()) return e.id();
+        }
+        for (Event e : events) {
+            if (e.isNext()) return e.id();
+        }
+        return null;
+    }
+}
@@ -1,10 +1,11 @@
 package com.example.PL.service;
 
 import com.example.PL.dto.PlayerFeatureRowDto;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import tools.jackson.databind.JsonNode;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,171 +16,329 @@ public class DatasetService {
 
     private final FplClient fplClient;
     private final FplLookupService lookupService;
-    private final FeatureBuilderService featureBuilder;
     private final FantasyScoringService scoringService;
+    private final FeatureBuilderService featureBuilder;
+    private final ElementSummaryDecoder summaryDecoder;
+    private final EventLiveIngestionService eventLiveIngestion;
+    private final IncrementalIngestionService incrementalIngestion;
+    private final FixtureIndexService fixtureIndexService;
+    private final MatchHistoryStore historyStore;
+    private final MatchStatsTable matchStatsTable;
+    private final FeatureSpec featureSpec;
+    private final FormFeatureService formFeatures;
+    private final String[] featureNames;
+    private final String ingestMode;
+
+    static final int WINDOW = 5;
 
-    private static final int WINDOW = 5;
-    private static final int CONCURRENCY = 6;
+    private static final String FEATURE_DEFINITIONS = "rolling-v2";
 
     public DatasetService(
             FplClient fplClient,
             FplLookupService lookupService,
+            FantasyScoringService scoringService,
             FeatureBuilderService featureBuilder,
-            FantasyScoringService scoringService
+            ElementSummaryDecoder summaryDecoder,
+            EventLiveIngestionService eventLiveIngestion,
+            IncrementalIngestionService incrementalIngestion,
+            FixtureIndexService fixtureIndexService,
+            MatchHistoryStore historyStore,
+            MatchStatsTable matchStatsTable,
+            FeatureSpec featureSpec,
+            FormFeatureService formFeatures,
+            @Value("${fpl.ingest.mode:element-summary}") String ingestMode
     ) {
         this.fplClient = fplClient;
         this.lookupService = lookupService;
-        this.featureBuilder = featureBuilder;
         this.scoringService = scoringService;
+        this.featureBuilder = featureBuilder;
+        this.summaryDecoder = summaryDecoder;
+        this.eventLiveIngestion = eventLiveIngestion;
+        this.incrementalIngestion = incrementalIngestion;
+        this.fixtureIndexService = fixtureIndexService;
+        this.historyStore = historyStore;
+        this.matchStatsTable = matchStatsTable;
+        this.featureSpec = featureSpec;
+        this.formFeatures = formFeatures;
+        this.featureNames = new String[featureSpec.width() + formFeatures.width()];
+        System.arraycopy(featureSpec.names(), 0, featureNames, 0, featureSpec.width());
+        System.arraycopy(formFeatures.names(), 0, featureNames, featureSpec.width(), formFeatures.width());
+        this.ingestMode = ingestMode;
+        // A corrected stored row invalidates the form state folded over the old one
+        historyStore.onSuperseded((season, playerId) -> formFeatures.invalidate(playerId));
+    }
+
+    /**
+     * Identifies how feature vectors are computed. Bump FEATURE_DEFINITIONS (or change WINDOW or
+     * the FeatureSpec) when a feature is added or redefined so stored vectors get recomputed.
+     */
+    public String featureVersion() {
+        return FEATURE_DEFINITIONS + "-w" + WINDOW + "-" + featureSpec.signature() + "-" + formFeatures.signature();
+    }
+
+    /**
+     * Keys of PlayerFeatureRowDto.features in order: the FeatureSpec windows, then the form features.
+     */
+    public String[] featureNames() {
+        return featureNames;
     }
 
     public String trainingCsvHeader() {
-        return "playerId,positionId,fixtureId,gameweek,isHome,opponentTeamId," +
+        StringBuilder sb = new StringBuilder("playerId,positionId,fixtureId,gameweek,isHome,opponentTeamId," +
                 "avgMinutes5,avgPoints5,avgGoals5,avgAssists5,avgSaves5,avgCleanSheets5,avgBonus5," +
-                "avgGoalsConceded5,avgCbi5,avgYellow5,avgRed5,labelTotalPoints\n";
+                "avgGoalsConceded5,avgCbi5,avgYellow5,avgRed5,");
+        for (String name : featureNames) sb.append(name).append(',');
+        return sb.append("labelTotalPoints\n").toString();
     }
 
     public Flux<PlayerFeatureRowDto> trainingRowsAllPlayers() {
-        Mono<List<Integer>> playerIdsMono = lookupService.getAllPlayerIds();
-        Mono<Map<Integer, String>> playerNameMapMono = lookupService.getPlayerIdToWebNameMap();
-        Mono<Map<Integer, Integer>> playerPosIdMapMono = lookupService.getPlayerIdToPositionIdMap();
-        Mono<Map<Integer, String>> posNameMapMono = lookupService.getPositionIdToNameMap();
+        if ("event-live".equals(ingestMode)) {
+            return trainingRowsAllPlayersFromEventLive();
+        }
+        if ("incremental".equals(ingestMode)) {
+            return trainingRowsAllPlayersIncremental();
+        }
+        if ("store".equals(ingestMode)) {
+            return trainingRowsAllPlayersFromStore();
+        }
+        if ("database".equals(ingestMode)) {
+            return trainingRowsAllPlayersFromDatabase();
+        }
 
-        return Mono.zip(playerIdsMono, playerNameMapMono, playerPosIdMapMono, posNameMapMono)
+        return Mono.zip(lookupService.getSnapshot(), fixtureIndexService.getIndex())
+                .flatMapMany(tuple -> Flux.fromIterable(tuple.getT1().playerIds())
+                        .flatMap(playerId ->
+                                        trainingRowsForOnePlayer(
+                                                playerId,
+                                                tuple.getT1(),
+                                                tuple.getT2(),
+                                                WINDOW
+                                        ),
+                                fplClient.maxConcurrency()
+                        ));
+    }
+
+    /**
+     * Same rows as trainingRowsAllPlayers, but histories come from one event-live call per
+     * finished gameweek (~38 requests) rather than one element-summary call per player (~700).
+     */
+    public Flux<PlayerFeatureRowDto> trainingRowsAllPlayersFromEventLive() {
+        return trainingRowsFromHistories(eventLiveIngestion.historiesForFinishedGameweeks());
+    }
+
+    /**
+     * Same rows again, from histories kept between runs; only players with new finished matches hit upstream.
+     */
+    public Flux<PlayerFeatureRowDto> trainingRowsAllPlayersIncremental() {
+        return trainingRowsFromHistories(incrementalIngestion.refresh());
+    }
+
+    /**
+     * Incremental ingest, with new matches appended to the on-disk columnar store and rows
+     * built from the stored columns rather than per-match objects.
+     */
+    public Flux<PlayerFeatureRowDto> trainingRowsAllPlayersFromStore() {
+        return Mono.zip(lookupService.getSnapshot(), fixtureIndexService.getIndex(), incrementalIngestion.refresh())
+                .publishOn(Schedulers.boundedElastic())
                 .flatMapMany(tuple -> {
-                    List<Integer> playerIds = tuple.getT1();
-                    Map<Integer, String> playerNameMap = tuple.getT2();
-                    Map<Integer, Integer> posIdMap = tuple.getT3();
-                    Map<Integer, String> posNameMap = tuple.getT4();
-
-                    return Flux.fromIterable(playerIds)
-                            .flatMap(playerId ->
-                                            trainingRowsForOnePlayer(
-                                                    playerId,
-                                                    playerNameMap,
-                                                    posIdMap,
-                                                    posNameMap,
-                                                    WINDOW
-                                            ),
-                                    CONCURRENCY
-                            );
+                    BootstrapSnapshot snapshot = tuple.getT1();
+                    FixtureIndex fixtures = tuple.getT2();
+                    String season = seasonOf(snapshot);
+
+                    int appended = historyStore.append(season, tuple.getT3());
+                    System.out.println("History store " + season + ": appended " + appended + " rows");
+
+                    PlayerTable table = snapshot.table();
+                    return Flux.fromIterable(snapshot.playerIds())
+                            .concatMap(playerId -> {
+                                int positionId = table.positionId(playerId, 0);
+                                return trainingRowsFromHistory(
+                                        playerId,
+                                        table.webName(playerId, "UNKNOWN"),
+                                        positionId,
+                                        table.positionName(positionId, "UNKNOWN"),
+                                        table.teamId(playerId, -1),
+                                        historyStore.slice(season, playerId).toHistory(),
+                                        fixtures,
+                                        WINDOW
+                                );
+                            });
+                });
+    }
+
+    /**
+     * Incremental ingest upserted into match_stats, with rows built from a cursor over the table.
+     */
+    public Flux<PlayerFeatureRowDto> trainingRowsAllPlayersFromDatabase() {
+        return Mono.zip(lookupService.getSnapshot(), fixtureIndexService.getIndex(), incrementalIngestion.refresh())
+                .publishOn(Schedulers.boundedElastic())
+                .flatMapMany(tuple -> {
+                    BootstrapSnapshot snapshot = tuple.getT1();
+                    FixtureIndex fixtures = tuple.getT2();
+                    String season = seasonOf(snapshot);
+
+                    matchStatsTable.upsert(season, tuple.getT3());
+
+                    PlayerTable table = snapshot.table();
+                    return matchStatsTable.streamHistories(season)
+                            .filter(p -> table.contains(p.playerId()))
+                            .concatMap(p -> {
+                                int positionId = table.positionId(p.playerId(), 0);
+                                return trainingRowsFromHistory(
+                                        p.playerId(),
+                                        table.webName(p.playerId(), "UNKNOWN"),
+                                        positionId,
+                                        table.positionName(positionId, "UNKNOWN"),
+                                        table.teamId(p.playerId(), -1),
+                                        p.matches(),
+                                        fixtures,
+                                        WINDOW
+                                );
+                            });
+                });
+    }
+
+    private static String seasonOf(BootstrapSnapshot snapshot) {
+        return snapshot.season() == null ? "current" : snapshot.season();
+    }
+
+    private Flux<PlayerFeatureRowDto> trainingRowsFromHistories(
+            Mono<Map<Integer, List<FeatureBuilderService.MatchStats>>> historiesMono
+    ) {
+        return Mono.zip(lookupService.getSnapshot(), fixtureIndexService.getIndex(), historiesMono)
+                .flatMapMany(tuple -> {
+                    BootstrapSnapshot snapshot = tuple.getT1();
+                    FixtureIndex fixtures = tuple.getT2();
+                    Map<Integer, List<FeatureBuilderService.MatchStats>> histories = tuple.getT3();
+
+                    return Flux.fromIterable(snapshot.playerIds())
+                            .concatMap(playerId -> {
+                                PlayerTable table = snapshot.table();
+                                String playerName = table.webName(playerId, "UNKNOWN");
+                                int positionId = table.positionId(playerId, 0);
+                                String positionName = table.positionName(positionId, "UNKNOWN");
+
+                                return trainingRowsFromHistory(
+                                        playerId,
+                                        playerName,
+                                        positionId,
+                                        positionName,
+                                        table.teamId(playerId, -1),
+                                        MatchHistory.of(histories.getOrDefault(playerId, List.of())),
+                                        fixtures,
+                                        WINDOW
+                                );
+                            });
                 });
     }
 
     public Flux<PlayerFeatureRowDto> trainingRowsForPlayer(int playerId) {
-        Mono<JsonNode> elementSummaryMono = fplClient.getElementSummary(playerId);
-        Mono<Map<Integer, String>> playerNameMapMono = lookupService.getPlayerIdToWebNameMap();
-        Mono<Map<Integer, Integer>> playerPosIdMapMono = lookupService.getPlayerIdToPositionIdMap();
-        Mono<Map<Integer, String>> posNameMapMono = lookupService.getPositionIdToNameMap();
+        Mono<ElementSummaryDecoder.Decoded> elementSummaryMono = fplClient.getElementSummaryBytes(playerId)
+                .map(summaryDecoder::decode);
 
-        return Mono.zip(elementSummaryMono, playerNameMapMono, playerPosIdMapMono, posNameMapMono)
+        return Mono.zip(elementSummaryMono, lookupService.getSnapshot(), fixtureIndexService.getIndex())
                 .flatMapMany(tuple -> {
-                    JsonNode elementSummary = tuple.getT1();
-                    Map<Integer, String> playerNameMap = tuple.getT2();
-                    Map<Integer, Integer> posIdMap = tuple.getT3();
-                    Map<Integer, String> posNameMap = tuple.getT4();
-
-                    String playerName = playerNameMap.getOrDefault(playerId, "UNKNOWN");
-                    int positionId = posIdMap.getOrDefault(playerId, 0);
-                    String positionName = posNameMap.getOrDefault(positionId, "UNKNOWN");
-
-                    List<FeatureBuilderService.MatchStats> history = featureBuilder.parseHistory(elementSummary);
-
-                    if (history.size() <= 1) return Flux.empty();
-
-                    FantasyScoringService.Position pos = toPosition(positionId);
-                    List<Integer> customPoints = computeCustomPoints(history, pos);
-
-                    return Flux.range(1, history.size() - 1)
-                            .map(i -> buildTrainingRow(
-                                    playerId,
-                                    playerName,
-                                    positionId,
-                                    positionName,
-                                    history,
-                                    customPoints,
-                                    i,
-                                    windowEffective(i, WINDOW)
-                            ));
+                    ElementSummaryDecoder.Decoded elementSummary = tuple.getT1();
+                    BootstrapSnapshot snapshot = tuple.getT2();
+
+                    PlayerTable table = snapshot.table();
+                    String playerName = table.webName(playerId, "UNKNOWN");
+                    int positionId = table.positionId(playerId, 0);
+                    String positionName = table.positionName(positionId, "UNKNOWN");
+
+                    return trainingRowsFromHistory(
+                            playerId,
+                            playerName,
+                            positionId,
+                            positionName,
+                            table.teamId(playerId, -1),
+                            elementSummary.history,
+                            tuple.getT3(),
+                            WINDOW
+                    );
                 });
     }
 
+    /**
+     * Whether the ingest mode keeps every player's history in IncrementalIngestionService (and so
+     * in the warm-start file), so prediction rows can be built from it rather than from one
+     * element-summary call per player.
+     */
+    public boolean holdsHistories() {
+        return "incremental".equals(ingestMode) || "store".equals(ingestMode) || "database".equals(ingestMode);
+    }
+
+    /**
+     * Next-fixture rows for every player from the held histories (see holdsHistories): one
+     * incremental refresh for the lot, and the next fixture from the fixture index.
+     */
+    public Flux<PlayerFeatureRowDto> nextFixtureRowsFromHistories() {
+        return Mono.zip(lookupService.getSnapshot(), fixtureIndexService.getIndex(), incrementalIngestion.refresh())
+                .flatMapMany(tuple -> Flux.fromIterable(tuple.getT1().playerIds())
+                        .mapNotNull(playerId -> nextFixtureRowFrom(tuple.getT1(), tuple.getT2(), tuple.getT3(), playerId)));
+    }
+
     /**
      * FIXED: Added proper null checking for players without upcoming fixtures
      */
     public Mono<PlayerFeatureRowDto> nextFixtureRowForPlayer(int playerId) {
-        Mono<JsonNode> elementSummaryMono = fplClient.getElementSummary(playerId);
-        Mono<Map<Integer, String>> playerNameMapMono = lookupService.getPlayerIdToWebNameMap();
-        Mono<Map<Integer, Integer>> playerPosIdMapMono = lookupService.getPlayerIdToPositionIdMap();
-        Mono<Map<Integer, String>> posNameMapMono = lookupService.getPositionIdToNameMap();
+        if (holdsHistories()) {
+            return Mono.zip(lookupService.getSnapshot(), fixtureIndexService.getIndex(), incrementalIngestion.refresh())
+                    .flatMap(tuple -> Mono.justOrEmpty(nextFixtureRowFrom(tuple.getT1(), tuple.getT2(), tuple.getT3(), playerId)))
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                            "Player " + playerId + " has no match history or no upcoming fixture")));
+        }
 
-        return Mono.zip(elementSummaryMono, playerNameMapMono, playerPosIdMapMono, posNameMapMono)
-                .flatMap(tuple -> {
-                    JsonNode elementSummary = tuple.getT1();
-                    Map<Integer, String> playerNameMap = tuple.getT2();
-                    Map<Integer, Integer> posIdMap = tuple.getT3();
-                    Map<Integer, String> posNameMap = tuple.getT4();
+        Mono<ElementSummaryDecoder.Decoded> elementSummaryMono = fplClient.getElementSummaryBytes(playerId)
+                .map(summaryDecoder::decode);
 
-                    String playerName = playerNameMap.getOrDefault(playerId, "UNKNOWN");
-                    int positionId = posIdMap.getOrDefault(playerId, 0);
-                    String positionName = posNameMap.getOrDefault(positionId, "UNKNOWN");
+        return Mono.zip(elementSummaryMono, lookupService.getSnapshot(), fixtureIndexService.getIndex())
+                .flatMap(tuple -> {
+                    ElementSummaryDecoder.Decoded elementSummary = tuple.getT1();
+                    BootstrapSnapshot snapshot = tuple.getT2();
+                    FixtureIndex fixtureIndex = tuple.getT3();
 
-                    List<FeatureBuilderService.MatchStats> history = featureBuilder.parseHistory(elementSummary);
+                    PlayerTable table = snapshot.table();
+                    String playerName = table.webName(playerId, "UNKNOWN");
+                    int positionId = table.positionId(playerId, 0);
+                    String positionName = table.positionName(positionId, "UNKNOWN");
 
                     // Check if player has played any matches
-                    if (history.isEmpty()) {
+                    if (elementSummary.history.isEmpty()) {
                         return Mono.error(new IllegalStateException(
                                 "Player " + playerId + " (" + playerName + ") has no match history"
                         ));
                     }
 
-                    FantasyScoringService.Position pos = toPosition(positionId);
-                    List<Integer> customPoints = computeCustomPoints(history, pos);
-                    int effectiveWindow = windowEffective(history.size(), WINDOW);
-
-                    var roll = featureBuilder.rollingFeatures(history, customPoints, effectiveWindow);
+                    MatchHistory history = scoringService.score(elementSummary.history, toPosition(positionId));
+                    var pass = nextPass(history);
+                    // A fresh full history every call, which nothing tells us about corrections to: fold it whole
+                    double[] form = formFeatures.forward(history, history.size(), history.size() + 1);
+                    var roll = pass.core()[0];
 
                     // Get upcoming fixtures
-                    JsonNode fixtures = elementSummary.get("fixtures");
+                    List<ElementSummaryDecoder.UpcomingFixture> fixtures = elementSummary.fixtures;
 
                     // ✅ FIX: Check if fixtures exist and have at least one upcoming match
-                    if (fixtures == null || fixtures.size() == 0) {
+                    if (fixtures.isEmpty()) {
                         return Mono.error(new IllegalStateException(
                                 "No upcoming fixtures found for player " + playerId + " (" + playerName + ")"
                         ));
                     }
 
-                    JsonNode next = fixtures.get(0);
+                    ElementSummaryDecoder.UpcomingFixture next = fixtures.get(0);
 
-                    // ✅ FIX: Safely extract fields with null checks
-                    JsonNode idNode = next.get("id");
-                    if (idNode == null) {
-                        return Mono.error(new IllegalStateException(
-                                "Fixture ID missing for player " + playerId
-                        ));
-                    }
-                    int fixtureId = idNode.asInt();
-
-                    JsonNode eventNode = next.get("event");
-                    Integer gw = (eventNode == null || eventNode.isNull()) ? null : eventNode.asInt();
+                    int fixtureId = next.fixtureId();
+                    Integer gw = next.event();
+                    boolean isHome = next.isHome();
+                    Integer fdr = next.difficulty();
 
-                    JsonNode isHomeNode = next.get("is_home");
-                    boolean isHome = (isHomeNode != null) && isHomeNode.asBoolean(false);
-
-//                    JsonNode opponentNode = next.get("opponent_team");
-//                    if (opponentNode == null) {
-//                        return Mono.error(new IllegalStateException(
-//                                "Opponent team missing for fixture " + fixtureId
-//                        ));
-//                    }
-                   // int opponentTeamId = opponentNode.asInt();
-
-                    JsonNode difficultyNode = next.get("difficulty");
-                    Integer fdr = (difficultyNode != null && !difficultyNode.isNull())
-                            ? difficultyNode.asInt()
-                            : null;
-
-                    int teamId = -1;
+                    int teamId = isHome ? next.teamH() : next.teamA();
+                    int opponentTeamId = isHome ? next.teamA() : next.teamH();
+                    if (fdr == null) {
+                        FixtureIndex.Fixture indexed = fixtureIndex.fixture(fixtureId);
+                        if (indexed != null) fdr = indexed.difficultyFor(isHome);
+                    }
 
                     return Mono.just(new PlayerFeatureRowDto(
                             playerId,
@@ -190,7 +349,7 @@ public class DatasetService {
                             fixtureId,
                             gw,
                             isHome,
-                            0,
+                            opponentTeamId,
                             teamId,
                             fdr,
 
@@ -206,6 +365,8 @@ public class DatasetService {
                             roll.avgYellow5(),
                             roll.avgRed5(),
 
+                            features(pass, form, 0),
+
                             null
                     ));
                 });
@@ -213,59 +374,227 @@ public class DatasetService {
 
     private Flux<PlayerFeatureRowDto> trainingRowsForOnePlayer(
             int playerId,
-            Map<Integer, String> playerNameMap,
-            Map<Integer, Integer> posIdMap,
-            Map<Integer, String> posNameMap,
+            BootstrapSnapshot snapshot,
+            FixtureIndex fixtures,
             int window
     ) {
-        String playerName = playerNameMap.getOrDefault(playerId, "UNKNOWN");
-        int positionId = posIdMap.getOrDefault(playerId, 0);
-        String positionName = posNameMap.getOrDefault(positionId, "UNKNOWN");
-
-        FantasyScoringService.Position pos = toPosition(positionId);
-
-        return fplClient.getElementSummary(playerId)
-                .flatMapMany(summary -> {
-                    List<FeatureBuilderService.MatchStats> history = featureBuilder.parseHistory(summary);
-                    if (history.size() <= 1) return Flux.empty();
-
-                    List<Integer> customPoints = computeCustomPoints(history, pos);
-
-                    return Flux.range(1, history.size() - 1)
-                            .map(i -> buildTrainingRow(
-                                    playerId,
-                                    playerName,
-                                    positionId,
-                                    positionName,
-                                    history,
-                                    customPoints,
-                                    i,
-                                    windowEffective(i, window)
-                            ));
-                });
+        PlayerTable table = snapshot.table();
+        String playerName = table.webName(playerId, "UNKNOWN");
+        int positionId = table.positionId(playerId, 0);
+        String positionName = table.positionName(positionId, "UNKNOWN");
+        int currentTeamId = table.teamId(playerId, -1);
+
+        return fplClient.getElementSummaryBytes(playerId)
+                .map(summaryDecoder::decode)
+                .flatMapMany(summary -> trainingRowsFromHistory(
+                        playerId,
+                        playerName,
+                        positionId,
+                        positionName,
+                        currentTeamId,
+                        summary.history,
+                        fixtures,
+                        window
+                ));
     }
 
-    private PlayerFeatureRowDto buildTrainingRow(
+    private Flux<PlayerFeatureRowDto> trainingRowsFromHistory(
             int playerId,
             String playerName,
             int positionId,
             String positionName,
-            List<FeatureBuilderService.MatchStats> history,
-            List<Integer> customPoints,
-            int i,
-            int effectiveWindow
+            int currentTeamId,
+            MatchHistory history,
+            FixtureIndex fixtures,
+            int window
     ) {
-        var current = history.get(i);
+        int n = history.size();
+        if (n <= 1) return Flux.empty();
+
+        MatchHistory scored = scoringService.score(history, toPosition(positionId));
+        var pass = RollingFeatureEngine.forward(RollingFeatureEngine.columns(scored),
+                1, n, window, featureSpec, 0, featureBuilder.windowKernel());
+        double[] form = formFeatures.forward(scored, 1, n);
+
+        return Flux.range(1, n - 1)
+                .map(i -> historyRow(
+                        playerId,
+                        playerName,
+                        positionId,
+                        positionName,
+                        currentTeamId,
+                        fixtures,
+                        scored,
+                        i,
+                        pass.core()[i - 1],
+                        features(pass, form, i - 1)
+                ));
+    }
+
+    /**
+     * Training rows for history[from..] only, for callers that already hold the rows before it.
+     */
+    public List<PlayerFeatureRowDto> trainingRowsFrom(BootstrapSnapshot snapshot,
+                                                      FixtureIndex fixtures,
+                                                      int playerId,
+                                                      MatchHistory history,
+                                                      int from) {
+        return trainingRowsFrom(snapshot, fixtures, playerId, history, from, 0);
+    }
+
+    /**
+     * As above, for a history whose current season starts at seasonStart (the rows before it
+     * carried over from earlier seasons), so season-to-date features only average from there.
+     */
+    public List<PlayerFeatureRowDto> trainingRowsFrom(BootstrapSnapshot snapshot,
+                                                      FixtureIndex fixtures,
+                                                      int playerId,
+                                                      MatchHistory history,
+                                                      int from,
+                                                      int seasonStart) {
+        int start = Math.max(1, from);
+        if (history.size() <= start) return List.of();
+
+        PlayerTable table = snapshot.table();
+        int positionId = table.positionId(playerId, 0);
+        String positionName = table.positionName(positionId, "UNKNOWN");
+        MatchHistory scored = scoringService.score(history, toPosition(positionId));
+        var pass = RollingFeatureEngine.forward(RollingFeatureEngine.columns(scored),
+                start, history.size(), WINDOW, featureSpec, seasonStart, featureBuilder.windowKernel());
+        double[] form = formFeatures.forward(scored, start, history.size());
+
+        List<PlayerFeatureRowDto> rows = new ArrayList<>(history.size() - start);
+        for (int i = start; i < history.size(); i++) {
+            rows.add(historyRow(
+                    playerId,
+                    table.webName(playerId, "UNKNOWN"),
+                    positionId,
+                    positionName,
+                    table.teamId(playerId, -1),
+                    fixtures,
+                    scored,
+                    i,
+                    pass.core()[i - start],
+                    features(pass, form, i - start)
+            ));
+        }
+        return rows;
+    }
+
+    /**
+     * Prediction row for a player's next fixture built from a history we already hold,
+     * so no element-summary call is needed. Null if the player has no matches yet.
+     */
+    public PlayerFeatureRowDto nextFixtureRow(BootstrapSnapshot snapshot,
+                                              int playerId,
+                                              MatchHistory history,
+                                              FixtureIndex.Fixture next) {
+        if (history.isEmpty()) return null;
+
+        PlayerTable table = snapshot.table();
+        int positionId = table.positionId(playerId, 0);
+        int teamId = table.teamId(playerId, -1);
+        boolean isHome = next.teamH() == teamId;
+
+        MatchHistory scored = scoringService.score(history, toPosition(positionId));
+        var pass = nextPass(scored);
+        double[] form = formFeatures.advance(playerId, scored);
+        var roll = pass.core()[0];
+
+        return new PlayerFeatureRowDto(
+                playerId,
+                table.webName(playerId, "UNKNOWN"),
+                positionId,
+                table.positionName(positionId, "UNKNOWN"),
+
+                next.id(),
+                next.event(),
+                isHome,
+                next.opponentFor(isHome),
+                teamId,
+                next.difficultyFor(isHome),
+
+                roll.avgMinutes5(),
+                roll.avgPoints5(),
+                roll.avgGoals5(),
+                roll.avgAssists5(),
+                roll.avgSaves5(),
+                roll.avgCleanSheets5(),
+                roll.avgBonus5(),
+                roll.avgGoalsConceded5(),
+                roll.avgCbi5(),
+                roll.avgYellow5(),
+                roll.avgRed5(),
 
-        var priorMatches = history.subList(0, i);
-        var priorPoints = customPoints.subList(0, i);
+                features(pass, form, 0),
 
-        var roll = featureBuilder.rollingFeatures(priorMatches, priorPoints, effectiveWindow);
+                null
+        );
+    }
+
+    private PlayerFeatureRowDto nextFixtureRowFrom(BootstrapSnapshot snapshot,
+                                                   FixtureIndex fixtures,
+                                                   Map<Integer, List<FeatureBuilderService.MatchStats>> histories,
+                                                   int playerId) {
+        Integer currentGw = snapshot.currentGameweek();
+        if (currentGw == null) return null;
+        FixtureIndex.Fixture next = fixtures.nextFor(snapshot.table().teamId(playerId, -1), currentGw);
+        if (next == null || next.event() == null) return null;
+        return nextFixtureRow(snapshot, playerId, MatchHistory.of(histories.getOrDefault(playerId, List.of())), next);
+    }
 
-        int label = customPoints.get(i);
+    private PlayerFeatureRowDto historyRow(
+            int playerId,
+            String playerName,
+            int positionId,
+            String positionName,
+            int currentTeamId,
+            FixtureIndex fixtures,
+            MatchHistory scored,
+            int i,
+            FeatureBuilderService.RollingFeatures roll,
+            Map<String, Double> features
+    ) {
+        return trainingRow(
+                playerId,
+                playerName,
+                positionId,
+                positionName,
+                currentTeamId,
+                fixtures,
+                scored.fixtureId[i],
+                scored.round(i),
+                scored.wasHome(i),
+                scored.opponentTeamId[i],
+                roll,
+                features,
+                scored.customPoints[i]
+        );
+    }
 
-        int teamId = -1;
+    private PlayerFeatureRowDto trainingRow(
+            int playerId,
+            String playerName,
+            int positionId,
+            String positionName,
+            int currentTeamId,
+            FixtureIndex fixtures,
+            int fixtureId,
+            Integer round,
+            boolean wasHome,
+            int opponentTeamId,
+            FeatureBuilderService.RollingFeatures roll,
+            Map<String, Double> features,
+            int label
+    ) {
+        // Team at the time of the match, which differs from currentTeamId for players who moved mid-season
+        int teamId = currentTeamId;
         Integer fixtureDifficulty = null;
+        FixtureIndex.Fixture fixture = fixtures.fixture(fixtureId);
+        if (fixture != null) {
+            teamId = fixture.teamFor(wasHome);
+            fixtureDifficulty = fixture.difficultyFor(wasHome);
+        }
 
         return new PlayerFeatureRowDto(
                 playerId,
@@ -273,10 +602,10 @@ public class DatasetService {
                 positionId,
                 positionName,
 
-                current.fixtureId(),
-                current.round(),
-                current.wasHome(),
-                current.opponentTeamId(),
+                fixtureId,
+                round,
+                wasHome,
+                opponentTeamId,
                 teamId,
                 fixtureDifficulty,
 
@@ -292,6 +621,8 @@ public class DatasetService {
                 roll.avgYellow5(),
                 roll.avgRed5(),
 
+                features,
+
                 label
         );
     }
@@ -314,29 +645,41 @@ public class DatasetService {
                 r.avgCbi5() + "," +
                 r.avgYellow5() + "," +
                 r.avgRed5() + "," +
+                featureValues(r) +
                 (r.labelTotalPoints() == null ? "" : r.labelTotalPoints()) + "\n";
     }
 
-    private FantasyScoringService.Position toPosition(int posId) {
-        return switch (posId) {
-            case 1 -> FantasyScoringService.Position.GK;
-            case 2 -> FantasyScoringService.Position.DEF;
-            case 3 -> FantasyScoringService.Position.MID;
-            case 4 -> FantasyScoringService.Position.FWD;
-            default -> FantasyScoringService.Position.MID;
-        };
+    private String featureValues(PlayerFeatureRowDto r) {
+        StringBuilder sb = new StringBuilder();
+        for (String name : featureNames) {
+            Double v = r.features() == null ? null : r.features().get(name);
+            if (v != null) sb.append(v);
+            sb.append(',');
+        }
+        return sb.toString();
     }
 
-    private int windowEffective(int available, int window) {
-        return Math.max(1, Math.min(window, available));
+    /**
+     * Row k's features map, from a spec pass and a block of form values that both start at the same row.
+     */
+    private Map<String, Double> features(RollingFeatureEngine.Pass pass, double[] form, int k) {
+        Map<String, Double> out = featureSpec.toMap(pass.extra(), k * pass.width());
+        String[] names = formFeatures.names();
+        int offset = k * names.length;
+        for (int f = 0; f < names.length; f++) out.put(names[f], form[offset + f]);
+        return out;
     }
 
-    private List<Integer> computeCustomPoints(List<FeatureBuilderService.MatchStats> history,
-                                              FantasyScoringService.Position pos) {
-        List<Integer> pts = new ArrayList<>(history.size());
-        for (var m : history) {
-            pts.add(scoringService.scoreMatch(m, pos));
-        }
-        return pts;
+    private FantasyScoringService.Position toPosition(int posId) {
+        return FantasyScoringService.Position.fromId(posId);
+    }
+
+    /**
+     * Rolling and spec features going into the fixture after the last one in a scored history.
+     */
+    private RollingFeatureEngine.Pass nextPass(MatchHistory scored) {
+        int n = scored.size();
+        return RollingFeatureEngine.forward(RollingFeatureEngine.columns(scored),
+                n, n + 1, WINDOW, featureSpec, 0, featureBuilder.windowKernel());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.example.PL.service;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for /element-summary/{id}/.
+ * Walks the raw bytes token by token and fills primitive columns, never building a JsonNode tree.
+ */
+@Service
+public class ElementSummaryDecoder {
+
+    private final ObjectMapper objectMapper;
+
+    public ElementSummaryDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public record UpcomingFixture(
+            int fixtureId,
+            Integer event,
+            boolean isHome,
+            Integer difficulty,
+            int teamH,
+            int teamA
+    ) {}
+
+    /**
+     * One player's decoded element-summary: the season's matches as a MatchHistory, plus the
+     * upcoming fixtures.
+     */
+    public static final class Decoded {
+        public final int size;
+        public final MatchHistory history;
+        public final List<UpcomingFixture> fixtures;
+
+        private Decoded(MatchHistory history, List<UpcomingFixture> fixtures) {
+            this.size = history.size();
+            this.history = history;
+            this.fixtures = List.copyOf(fixtures);
+        }
+
+        public FeatureBuilderService.MatchStats matchAt(int i) {
+            return history.matchAt(i);
+        }
+
+        /**
+         * Record view for code that still works on List&lt;MatchStats&gt;.
+         */
+        public List<FeatureBuilderService.MatchStats> toMatchStats() {
+            return history.asList();
+        }
+    }
+
+    public Decoded decode(byte[] elementSummary) {
+        MatchHistory.Builder history = new MatchHistory.Builder();
+        List<UpcomingFixture> fixtures = new ArrayList<>();
+
+        try (JsonParser p = objectMapper.createParser(elementSummary)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("element-summary is not a JSON object");
+            }
+            while (p.nextToken() != JsonToken.END_OBJECT) {
+                String name = p.currentName();
+                JsonToken value = p.nextToken();
+                if (value == JsonToken.START_ARRAY && "history".equals(name)) {
+                    readHistory(p, history);
+                } else if (value == JsonToken.START_ARRAY && "fixtures".equals(name)) {
+                    readFixtures(p, fixtures);
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+
+        return new Decoded(history.build(), fixtures);
+    }
+
+    /**
+     * Stats missing from a row decode as 0 and unknown fields are skipped, but every row must carry
+     * a fixture id: rows are keyed by it everywhere downstream.
+     */
+    private void readHistory(JsonParser p, MatchHistory.Builder b) {
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            int i = b.next();
+            boolean hasFixture = false;
+
+            while (p.nextToken() != JsonToken.END_OBJECT) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                switch (field) {
+                    case "fixture" -> {
+                        hasFixture = t == JsonToken.VALUE_NUMBER_INT;
+                        if (hasFixture) b.fixtureId[i] = p.getValueAsInt();
+                    }
+                    case "round" -> b.setRound(i, t == JsonToken.VALUE_NULL ? null : p.getValueAsInt());
+                    case "minutes" -> b.minutes[i] = p.getValueAsInt();
+                    case "goals_scored" -> b.goals[i] = p.getValueAsInt();
+                    case "assists" -> b.assists[i] = p.getValueAsInt();
+                    case "clean_sheets" -> b.cleanSheets[i] = p.getValueAsInt();
+                    case "saves" -> b.saves[i] = p.getValueAsInt();
+                    case "bonus" -> b.bonus[i] = p.getValueAsInt();
+                    case "goals_conceded" -> b.goalsConceded[i] = p.getValueAsInt();
+                    case "clearances_blocks_interceptions" -> b.cbi[i] = p.getValueAsInt();
+                    case "yellow_cards" -> b.yellow[i] = p.getValueAsInt();
+                    case "red_cards" -> b.red[i] = p.getValueAsInt();
+                    case "own_goals" -> b.ownGoals[i] = p.getValueAsInt();
+                    case "penalties_saved" -> b.penaltiesSaved[i] = p.getValueAsInt();
+                    case "penalties_missed" -> b.penaltiesMissed[i] = p.getValueAsInt();
+                    case "opponent_team" -> b.opponentTeamId[i] = p.getValueAsInt();
+                    case "was_home" -> b.setHome(i, t == JsonToken.VALUE_TRUE);
+                    default -> p.skipChildren();
+                }
+            }
+            if (!hasFixture) {
+                throw new IllegalStateException("element-summary history row " + i + " has no fixture id");
+            }
+            b.done();
+        }
+    }
+
+    private void readFixtures(JsonParser p, List<UpcomingFixture> out) {
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            int id = 0;
+            Integer event = null;
+            boolean isHome = false;
+            Integer difficulty = null;
+            int teamH = 0;
+            int teamA = 0;
+
+            while (p.nextToken() != JsonToken.END_OBJECT) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                switch (field) {
+                    case "id" -> id = p.getValueAsInt();
+                    case "event" -> event = t == JsonToken.VALUE_NULL ? null : p.getValueAsInt();
+                    case "is_home" -> isHome = t == JsonToken.VALUE_TRUE;
+                    case "difficulty" -> difficulty = t == JsonToken.VALUE_NULL ? null : p.getValueAsInt();
+                    case "team_h" -> teamH = p.getValueAsInt();
+                    case "team_a" -> teamA = p.getValueAsInt();
+                    default -> p.skipChildren();
+                }
+            }
+            out.add(new UpcomingFixture(id, event, isHome, difficulty, teamH, teamA));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.PL.service;
+
+import com.example.PL.dto.EnrichedFixtureDto;
+import com.example.PL.dto.EnrichedPlayerDto;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enriched player and fixture lists, built once per bootstrap snapshot / fixture index and
+ * shared by every request until the underlying data is refreshed. Filters read prebuilt
+ * buckets instead of scanning.
+ */
+@Service
+public class EnrichedProjectionService {
+
+    private final FplLookupService lookupService;
+    private final FixtureIndexService fixtureIndexService;
+
+    private volatile PlayerProjection players;
+    private volatile FixtureProjection fixtures;
+
+    private record PlayerProjection(
+            BootstrapSnapshot source,
+            List<EnrichedPlayerDto> all,
+            Map<Integer, List<EnrichedPlayerDto>> byTeam,
+            Map<Integer, List<EnrichedPlayerDto>> byPosition,
+            Map<Long, List<EnrichedPlayerDto>> byTeamPosition
+    ) {}
+
+    private record FixtureProjection(
+            FixtureIndex source,
+            BootstrapSnapshot teams,
+            List<EnrichedFixtureDto> all,
+            Map<Integer, List<EnrichedFixtureDto>> byGameweek,
+            Map<Integer, List<EnrichedFixtureDto>> byTeam,
+            Map<Long, List<EnrichedFixtureDto>> byTeamGameweek
+    ) {}
+
+    public EnrichedProjectionService(FplLookupService lookupService,
+                                     FixtureIndexService fixtureIndexService) {
+        this.lookupService = lookupService;
+        this.fixtureIndexService = fixtureIndexService;
+    }
+
+    /**
+     * Players, optionally narrowed to a team and/or position.
+     */
+    public Mono<List<EnrichedPlayerDto>> players(Integer teamId, Integer positionId) {
+        return lookupService.getSnapshot().map(snapshot -> {
+            PlayerProjection p = playerProjection(snapshot);
+            if (teamId != null && positionId != null) {
+                return p.byTeamPosition().getOrDefault(pairKey(teamId, positionId), List.of());
+            }
+            if (teamId != null) return p.byTeam().getOrDefault(teamId, List.of());
+            if (positionId != null) return p.byPosition().getOrDefault(positionId, List.of());
+            return p.all();
+        });
+    }
+
+    /**
+     * Fixtures, optionally narrowed to a gameweek and/or a team (home or away).
+     */
+    public Mono<List<EnrichedFixtureDto>> fixtures(Integer gameweek, Integer teamId) {
+        return Mono.zip(fixtureIndexService.getIndex(), lookupService.getSnapshot()).map(tuple -> {
+            FixtureProjection p = fixtureProjection(tuple.getT1(), tuple.getT2());
+            if (gameweek != null && teamId != null) {
+                return p.byTeamGameweek().getOrDefault(pairKey(teamId, gameweek), List.of());
+            }
+            if (gameweek != null) return p.byGameweek().getOrDefault(gameweek, List.of());
+            if (teamId != null) return p.byTeam().getOrDefault(teamId, List.of());
+            return p.all();
+        });
+    }
+
+    private PlayerProjection playerProjection(BootstrapSnapshot snapshot) {
+        PlayerProjection p = players;
+        if (p != null && p.source() == snapshot) return p;
+
+        synchronized (this) {
+            p = players;
+            if (p != null && p.source() == snapshot) return p;
+
+            List<EnrichedPlayerDto> all = new ArrayList<>(snapshot.players().size());
+            Map<Integer, List<EnrichedPlayerDto>> byTeam = new HashMap<>();
+            Map<Integer, List<EnrichedPlayerDto>> byPosition = new HashMap<>();
+            Map<Long, List<EnrichedPlayerDto>> byTeamPosition = new HashMap<>();
+            PlayerTable table = snapshot.table();
+
+            for (BootstrapSnapshot.Player pl : snapshot.players()) {
+                EnrichedPlayerDto dto = new EnrichedPlayerDto(
+                        pl.id(),
+                        pl.webName(),
+                        pl.firstName(),
+                        pl.secondName(),
+                        pl.teamId(),
+                        table.teamName(pl.teamId(), "UNKNOWN"),
+                        pl.positionId(),
+                        table.positionName(pl.positionId(), "UNKNOWN"),
+                        pl.nowCost(),
+                        pl.status()
+                );
+                all.add(dto);
+                byTeam.computeIfAbsent(pl.teamId(), k -> new ArrayList<>()).add(dto);
+                byPosition.computeIfAbsent(pl.positionId(), k -> new ArrayList<>()).add(dto);
+                byTeamPosition.computeIfAbsent(pairKey(pl.teamId(), pl.positionId()), k -> new ArrayList<>()).add(dto);
+            }
+
+            p = new PlayerProjection(snapshot, List.copyOf(all), freeze(byTeam), freeze(byPosition), freeze(byTeamPosition));
+            players = p;
+            return p;
+        }
+    }
+
+    private FixtureProjection fixtureProjection(FixtureIndex index, BootstrapSnapshot snapshot) {
+        FixtureProjection p = fixtures;
+        if (p != null && p.source() == index && p.teams() == snapshot) return p;
+
+        synchronized (this) {
+            p = fixtures;
+            if (p != null && p.source() == index && p.teams() == snapshot) return p;
+
+            PlayerTable table = snapshot.table();
+            List<EnrichedFixtureDto> all = new ArrayList<>(index.fixtures().size());
+            Map<Integer, List<EnrichedFixtureDto>> byGameweek = new HashMap<>();
+            Map<Integer, List<EnrichedFixtureDto>> byTeam = new HashMap<>();
+            Map<Long, List<EnrichedFixtureDto>> byTeamGameweek = new HashMap<>();
+
+            for (FixtureIndex.Fixture f : index.fixtures()) {
+                EnrichedFixtureDto dto = new EnrichedFixtureDto(
+                        f.id(), f.event(), f.kickoffTime(),
+                        f.teamH(), table.teamName(f.teamH(), "UNKNOWN"),
+                        f.teamA(), table.teamName(f.teamA(), "UNKNOWN"),
+                        f.finished(),
+                        f.teamHScore(),
+                        f.teamAScore()
+                );
+                all.add(dto);
+                byTeam.computeIfAbsent(f.teamH(), k -> new ArrayList<>()).add(dto);
+                byTeam.computeIfAbsent(f.teamA(), k -> new ArrayList<>()).add(dto);
+                if (f.event() != null) {
+                    byGameweek.computeIfAbsent(f.event(), k -> new ArrayList<>()).add(dto);
+                    byTeamGameweek.computeIfAbsent(pairKey(f.teamH(), f.event()), k -> new ArrayList<>()).add(dto);
+                    byTeamGameweek.computeIfAbsent(pairKey(f.teamA(), f.event()), k -> new ArrayList<>()).add(dto);
+                }
+            }
+
+            p = new FixtureProjection(index, snapshot, List.copyOf(all), freeze(byGameweek), freeze(byTeam), freeze(byTeamGameweek));
+            fixtures = p;
+            return p;
+        }
+    }
+
+    private static <K, V> Map<K, List<V>> freeze(Map<K, List<V>> buckets) {
+        buckets.replaceAll((k, v) -> List.copyOf(v));
+        return Collections.unmodifiableMap(buckets);
+    }
+
+    private static long pairKey(int a, int b) {
+        return ((long) a << 32) | b;
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.PL.service;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds every player's match history from one /event/{gw}/live/ response per finished gameweek,
+ * instead of one element-summary call per player.
+ *
+ * Rows are generated for each finished fixture of the player's current team, so a player who
+ * moved clubs mid-season only gets history from their current team's fixtures.
+ */
+@Service
+public class EventLiveIngestionService {
+
+    private static final String[] STAT_KEYS = {
+            "minutes", "goals_scored", "assists", "clean_sheets", "saves", "bonus", "goals_conceded",
+            "clearances_blocks_interceptions", "yellow_cards", "red_cards", "own_goals",
+            "penalties_saved", "penalties_missed"
+    };
+
+    private final FplClient fplClient;
+    private final FplLookupService lookupService;
+    private final FixtureIndexService fixtureIndexService;
+    private final ObjectMapper objectMapper;
+
+    public EventLiveIngestionService(FplClient fplClient,
+                                     FplLookupService lookupService,
+                                     FixtureIndexService fixtureIndexService,
+                                     ObjectMapper objectMapper) {
+        this.fplClient = fplClient;
+        this.lookupService = lookupService;
+        this.fixtureIndexService = fixtureIndexService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * playerId -> history in match order, covering every finished gameweek.
+     */
+    public Mono<Map<Integer, List<FeatureBuilderService.MatchStats>>> historiesForFinishedGameweeks() {
+        return lookupService.getSnapshot()
+                .flatMap(snapshot -> {
+                    List<Integer> gameweeks = new ArrayList<>();
+                    for (BootstrapSnapshot.Event e : snapshot.events()) {
+                        if (e.finished()) gameweeks.add(e.id());
+                    }
+                    return historiesFor(snapshot, gameweeks);
+                });
+    }
+
+    public Mono<Map<Integer, List<FeatureBuilderService.MatchStats>>> historiesFor(BootstrapSnapshot snapshot,
+                                                                                  List<Integer> gameweeks) {
+        return fixtureIndexService.getIndex()
+                .flatMap(fixtures -> historiesFor(snapshot, fixtures, gameweeks));
+    }
+
+    /**
+     * Same, for a caller that already holds the fixture index.
+     */
+    public Mono<Map<Integer, List<FeatureBuilderService.MatchStats>>> historiesFor(BootstrapSnapshot snapshot,
+                                                                                  FixtureIndex fixtures,
+                                                                                  List<Integer> gameweeks) {
+        return Flux.fromIterable(gameweeks)
+                .flatMap(gw -> fplClient.getEventLive(gw).map(body -> Tuples.of(gw, body)),
+                        fplClient.maxConcurrency())
+                .collectList()
+                .map(lives -> assemble(snapshot, fixtures, lives));
+    }
+
+    private Map<Integer, List<FeatureBuilderService.MatchStats>> assemble(BootstrapSnapshot snapshot,
+                                                                         FixtureIndex fixtures,
+                                                                         List<Tuple2<Integer, byte[]>> lives) {
+        PlayerTable table = snapshot.table();
+
+        Map<Integer, List<OrderedMatch>> rows = new HashMap<>();
+        for (Tuple2<Integer, byte[]> live : lives) {
+            int gw = live.getT1();
+            JsonNode root = objectMapper.readTree(live.getT2());
+
+            for (JsonNode el : root.get("elements")) {
+                int playerId = el.get("id").asInt();
+                int teamId = table.teamId(playerId, PlayerTable.ABSENT);
+                if (teamId == PlayerTable.ABSENT) continue;
+
+                // The team's finished fixtures in the gameweek, two for a double gameweek
+                List<FixtureIndex.Fixture> teamFixtures = finished(fixtures.forTeam(teamId, gw));
+                if (teamFixtures.isEmpty()) continue; // blank gameweek
+
+                List<OrderedMatch> out = rows.computeIfAbsent(playerId, k -> new ArrayList<>());
+                if (teamFixtures.size() == 1) {
+                    Map<String, Integer> stats = readStats(el.get("stats"));
+                    out.add(toMatch(gw, teamFixtures.get(0), teamId, stats));
+                } else {
+                    splitDoubleGameweek(gw, teamFixtures, teamId, el, out);
+                }
+            }
+        }
+
+        Map<Integer, List<FeatureBuilderService.MatchStats>> histories = new HashMap<>(rows.size() * 2);
+        for (Map.Entry<Integer, List<OrderedMatch>> e : rows.entrySet()) {
+            List<OrderedMatch> matches = e.getValue();
+            matches.sort(Comparator.comparingInt(OrderedMatch::gameweek).thenComparingInt(OrderedMatch::order));
+            List<FeatureBuilderService.MatchStats> history = new ArrayList<>(matches.size());
+            for (OrderedMatch m : matches) history.add(m.stats());
+            histories.put(e.getKey(), history);
+        }
+        return histories;
+    }
+
+    /**
+     * The aggregate "stats" block covers both fixtures of a double gameweek, while "explain" only
+     * lists the stats that scored points in each fixture (1-2 saves, CBI under the threshold or a
+     * midfielder's goals conceded don't show up). Each fixture gets its explained values, and the
+     * first fixture the player featured in also gets whatever of the totals explain doesn't account
+     * for, so the rows always add back up to "stats".
+     */
+    static void splitDoubleGameweek(int gw, List<FixtureIndex.Fixture> teamFixtures, int teamId,
+                                    JsonNode el, List<OrderedMatch> out) {
+        Map<String, Integer> totals = readStats(el.get("stats"));
+
+        Map<Integer, Map<String, Integer>> explained = new HashMap<>();
+        Map<String, Integer> explainedSums = new HashMap<>();
+        JsonNode explain = el.get("explain");
+        if (explain != null) {
+            for (JsonNode block : explain) {
+                int fixtureId = block.get("fixture").asInt();
+                if (teamFixtures.stream().noneMatch(f -> f.id() == fixtureId)) continue;
+                Map<String, Integer> perFixture = explained.computeIfAbsent(fixtureId, k -> new HashMap<>());
+                for (JsonNode s : block.get("stats")) {
+                    String key = s.get("identifier").asText();
+                    perFixture.merge(key, s.get("value").asInt(), Integer::sum);
+                    explainedSums.merge(key, s.get("value").asInt(), Integer::sum);
+                }
+            }
+        }
+
+        Integer remainderFixture = null;
+        for (FixtureIndex.Fixture f : teamFixtures) {
+            Map<String, Integer> e = explained.get(f.id());
+            if (e != null && e.getOrDefault("minutes", 0) > 0) {
+                remainderFixture = f.id();
+                break;
+            }
+        }
+        if (remainderFixture == null) remainderFixture = teamFixtures.get(0).id();
+
+        // Explain claiming more than the totals means the two blocks disagree; trust the totals
+        Set<String> unsplit = new HashSet<>();
+        for (String key : STAT_KEYS) {
+            if (explainedSums.getOrDefault(key, 0) > totals.getOrDefault(key, 0)) {
+                unsplit.add(key);
+                System.err.println("✗ GW" + gw + " player " + el.get("id").asInt() + ": explain " + key + "="
+                        + explainedSums.get(key) + " exceeds stats " + key + "=" + totals.getOrDefault(key, 0)
+                        + "; not splitting it");
+            }
+        }
+
+        List<Map<String, Integer>> split = new ArrayList<>(teamFixtures.size());
+        for (FixtureIndex.Fixture f : teamFixtures) {
+            Map<String, Integer> e = explained.getOrDefault(f.id(), Map.of());
+            boolean remainder = f.id() == remainderFixture;
+            Map<String, Integer> stats = new HashMap<>();
+            for (String key : STAT_KEYS) {
+                int total = totals.getOrDefault(key, 0);
+                int value;
+                if (unsplit.contains(key)) {
+                    value = remainder ? total : 0;
+                } else {
+                    value = e.getOrDefault(key, 0);
+                    if (remainder) value += total - explainedSums.getOrDefault(key, 0);
+                }
+                stats.put(key, value);
+            }
+            split.add(stats);
+        }
+
+        for (String key : STAT_KEYS) {
+            int sum = 0;
+            for (Map<String, Integer> stats : split) sum += stats.get(key);
+            if (sum != totals.getOrDefault(key, 0)) {
+                throw new IllegalStateException("GW" + gw + " split of " + key + " for player " + el.get("id").asInt()
+                        + " adds up to " + sum + ", stats say " + totals.getOrDefault(key, 0));
+            }
+        }
+        for (int i = 0; i < teamFixtures.size(); i++) out.add(toMatch(gw, teamFixtures.get(i), teamId, split.get(i)));
+    }
+
+    private static Map<String, Integer> readStats(JsonNode statsNode) {
+        Map<String, Integer> stats = new HashMap<>();
+        if (statsNode == null) return stats;
+        for (String key : STAT_KEYS) {
+            JsonNode v = statsNode.get(key);
+            if (v != null && !v.isNull()) stats.put(key, v.asInt());
+        }
+        return stats;
+    }
+
+    private static OrderedMatch toMatch(int gw, FixtureIndex.Fixture f, int teamId, Map<String, Integer> s) {
+        boolean home = f.teamH() == teamId;
+        return new OrderedMatch(gw, f.order(), new FeatureBuilderService.MatchStats(
+                f.id(),
+                gw,
+                s.getOrDefault("minutes", 0),
+                s.getOrDefault("goals_scored", 0),
+                s.getOrDefault("assists", 0),
+                s.getOrDefault("clean_sheets", 0),
+                s.getOrDefault("saves", 0),
+                s.getOrDefault("bonus", 0),
+                s.getOrDefault("goals_conceded", 0),
+                s.getOrDefault("clearances_blocks_interceptions", 0),
+                s.getOrDefault("yellow_cards", 0),
+                s.getOrDefault("red_cards", 0),
+                s.getOrDefault("own_goals", 0),
+                s.getOrDefault("penalties_saved", 0),
+                s.getOrDefault("penalties_missed", 0),
+                home ? f.teamA() : f.teamH(),
+                home
+        ));
+    }
+
+    private static List<FixtureIndex.Fixture> finished(List<FixtureIndex.Fixture> fixtures) {
+        List<FixtureIndex.Fixture> out = new ArrayList<>(fixtures.size());
+        for (FixtureIndex.Fixture f : fixtures) {
+            if (f.finished()) out.add(f);
+        }
+        return out;
+    }
+
+    record OrderedMatch(int gameweek, int order, FeatureBuilderService.MatchStats stats) {}
+}
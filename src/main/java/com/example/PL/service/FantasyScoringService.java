@@ -6,61 +6,99 @@ import org.springframework.stereotype.Service;
 public class FantasyScoringService {
 
     public enum Position {
-        GK, DEF, MID, FWD
+        GK, DEF, MID, FWD;
+
+        /**
+         * FPL element_type id (1-4) to position; anything else scores as a midfielder.
+         */
+        public static Position fromId(int positionId) {
+            return switch (positionId) {
+                case 1 -> GK;
+                case 2 -> DEF;
+                case 4 -> FWD;
+                default -> MID;
+            };
+        }
     }
 
     public int scoreMatch(FeatureBuilderService.MatchStats m, Position pos) {
+        return score(m.minutes(), m.goals(), m.assists(), m.cleanSheets(), m.saves(), m.cbi(),
+                m.penaltiesSaved(), m.penaltiesMissed(), m.bonus(), m.goalsConceded(),
+                m.yellow(), m.red(), m.ownGoals(), pos);
+    }
+
+    /**
+     * Same scoring for row i of a MatchHistory, read straight from its columns.
+     */
+    public int scoreMatch(MatchHistory h, int i, Position pos) {
+        return score(h.minutes[i], h.goals[i], h.assists[i], h.cleanSheets[i], h.saves[i], h.cbi[i],
+                h.penaltiesSaved[i], h.penaltiesMissed[i], h.bonus[i], h.goalsConceded[i],
+                h.yellow[i], h.red[i], h.ownGoals[i], pos);
+    }
+
+    /**
+     * The history with its customPoints column filled in for pos.
+     */
+    public MatchHistory score(MatchHistory h, Position pos) {
+        int[] points = new int[h.size()];
+        for (int i = 0; i < points.length; i++) points[i] = scoreMatch(h, i, pos);
+        return h.withCustomPoints(points);
+    }
+
+    private static int score(int minutes, int goals, int assists, int cleanSheets, int saves, int cbi,
+                             int penaltiesSaved, int penaltiesMissed, int bonus, int goalsConceded,
+                             int yellow, int red, int ownGoals, Position pos) {
         int points = 0;
 
         // Minutes
-        if (m.minutes() > 0 && m.minutes() < 60) points += 1;
-        else if (m.minutes() >= 60) points += 2;
+        if (minutes > 0 && minutes < 60) points += 1;
+        else if (minutes >= 60) points += 2;
 
         // Goals by position
         points += switch (pos) {
-            case GK -> 10 * m.goals();
-            case DEF -> 6 * m.goals();
-            case MID -> 5 * m.goals();
-            case FWD -> 4 * m.goals();
+            case GK -> 10 * goals;
+            case DEF -> 6 * goals;
+            case MID -> 5 * goals;
+            case FWD -> 4 * goals;
         };
 
         // Assists
-        points += 3 * m.assists();
+        points += 3 * assists;
 
         // Clean sheet
-        if (m.cleanSheets() > 0) {
+        if (cleanSheets > 0) {
             if (pos == Position.GK || pos == Position.DEF) points += 4;
             else if (pos == Position.MID) points += 1;
         }
 
         // Saves: 1 per 3 saves (GK only)
         if (pos == Position.GK) {
-            points += (m.saves() / 3);
+            points += (saves / 3);
         }
 
 
         if (pos == Position.DEF) {
-            if (m.cbi() >= 10) points += 2;
+            if (cbi >= 10) points += 2;
         } else if (pos == Position.MID || pos == Position.FWD) {
-            if (m.cbi() >= 12) points += 2;
+            if (cbi >= 12) points += 2;
         }
 
         // Penalties
-        points += 5 * m.penaltiesSaved();
-        points += -2 * m.penaltiesMissed();
+        points += 5 * penaltiesSaved;
+        points += -2 * penaltiesMissed;
 
         // Bonus
-        points += m.bonus();
+        points += bonus;
 
         // Goals conceded: -1 per 2 conceded (GK/DEF)
         if (pos == Position.GK || pos == Position.DEF) {
-            points += -(m.goalsConceded() / 2);
+            points += -(goalsConceded / 2);
         }
 
         // Cards / own goals
-        points += -1 * m.yellow();
-        points += -3 * m.red();
-        points += -2 * m.ownGoals();
+        points += -1 * yellow;
+        points += -3 * red;
+        points += -2 * ownGoals;
 
         return points;
     }
@@ -0,0 +1,117 @@
+package com.example.PL.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which extra rolling features go into each row, on top of the fixed window-5 avg*5 fields:
+ * a per-match average of each configured stat over each configured window, and optionally over
+ * the season so far. Feature names are "avg" + stat + window, e.g. avgPoints3, avgMinutesSeason.
+ * The core window (DatasetService.WINDOW) is rejected: its names would collide with the avg*5 fields.
+ */
+@Component
+public class FeatureSpec {
+
+    private static final String[] STAT_NAMES = {
+            "Minutes", "Points", "Goals", "Assists", "Saves", "CleanSheets",
+            "Bonus", "GoalsConceded", "Cbi", "Yellow", "Red"
+    };
+
+    private final int[] windows;
+    private final boolean seasonToDate;
+    private final int[] stats;
+    private final String[] names;
+    private final String signature;
+
+    public FeatureSpec(@Value("${fpl.features.windows:3,10}") String windows,
+                       @Value("${fpl.features.season-to-date:true}") boolean seasonToDate,
+                       @Value("${fpl.features.stats:minutes,points,goals,assists,saves,clean-sheets,bonus,goals-conceded,cbi,yellow,red}") String stats) {
+        this.windows = Arrays.stream(windows.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .peek(w -> {
+                    if (w < 1) throw new IllegalArgumentException("fpl.features.windows must be positive, got " + w);
+                    if (w == DatasetService.WINDOW) {
+                        throw new IllegalArgumentException("fpl.features.windows must not include " + w
+                                + ", the core window every row already carries as avg*" + w);
+                    }
+                })
+                .distinct()
+                .sorted()
+                .toArray();
+        this.seasonToDate = seasonToDate;
+        this.stats = Arrays.stream(stats.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(FeatureSpec::statIndex)
+                .distinct()
+                .toArray();
+
+        List<String> n = new ArrayList<>();
+        for (int w : this.windows) {
+            for (int s : this.stats) n.add("avg" + STAT_NAMES[s] + w);
+        }
+        if (seasonToDate) {
+            for (int s : this.stats) n.add("avg" + STAT_NAMES[s] + "Season");
+        }
+        this.names = n.toArray(new String[0]);
+        this.signature = Integer.toHexString(String.join(",", names).hashCode());
+    }
+
+    public int[] windows() {
+        return windows;
+    }
+
+    public boolean seasonToDate() {
+        return seasonToDate;
+    }
+
+    /**
+     * RollingFeatureEngine column index of each configured stat.
+     */
+    public int[] stats() {
+        return stats;
+    }
+
+    /**
+     * Feature names in value order: every stat for the first window, then the next window, then season-to-date.
+     */
+    public String[] names() {
+        return names;
+    }
+
+    public int width() {
+        return names.length;
+    }
+
+    /**
+     * Short, stable id of the feature set, for versioning stored vectors.
+     */
+    public String signature() {
+        return signature;
+    }
+
+    /**
+     * Name -> value for one row of a row-major value block.
+     */
+    public Map<String, Double> toMap(double[] values, int offset) {
+        Map<String, Double> out = new LinkedHashMap<>(names.length * 2);
+        for (int f = 0; f < names.length; f++) out.put(names[f], values[offset + f]);
+        return out;
+    }
+
+    private static int statIndex(String name) {
+        String key = name.replace("-", "").replace("_", "");
+        for (int s = 0; s < STAT_NAMES.length; s++) {
+            if (STAT_NAMES[s].equalsIgnoreCase(key)) return s;
+        }
+        throw new IllegalArgumentException("Unknown feature stat '" + name + "' in fpl.features.stats");
+    }
+}
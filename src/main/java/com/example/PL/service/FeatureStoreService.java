@@ -0,0 +1,217 @@
+package com.example.PL.service;
+
+import com.example.PL.dto.PlayerFeatureRowDto;
+import com.example.PL.model.PlayerFeatureVector;
+import com.example.PL.repository.PlayerFeatureVectorRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Feature vectors computed once and kept in player_features, so training and prediction read
+ * them instead of recomputing every rolling window on every run.
+ *
+ * Each update only computes vectors for matches finished since the last one, plus fresh vectors
+ * for everyone's next fixture. Each labelled vector keeps a hash of the matches it was built from;
+ * if a player's current history no longer hashes the same up to their latest stored vector (an
+ * upstream stat correction), that player's vectors are rebuilt. Vectors stored under a different
+ * DatasetService.featureVersion() are dropped and rebuilt in full.
+ */
+@Service
+public class FeatureStoreService {
+
+    private final DatasetService datasetService;
+    private final FplLookupService lookupService;
+    private final FixtureIndexService fixtureIndexService;
+    private final IncrementalIngestionService incrementalIngestion;
+    private final PlayerFeatureVectorRepository repository;
+
+    public FeatureStoreService(DatasetService datasetService,
+                               FplLookupService lookupService,
+                               FixtureIndexService fixtureIndexService,
+                               IncrementalIngestionService incrementalIngestion,
+                               PlayerFeatureVectorRepository repository) {
+        this.datasetService = datasetService;
+        this.lookupService = lookupService;
+        this.fixtureIndexService = fixtureIndexService;
+        this.incrementalIngestion = incrementalIngestion;
+        this.repository = repository;
+    }
+
+    /**
+     * Bring the store up to date, then return every labelled vector.
+     */
+    public Flux<PlayerFeatureRowDto> trainingRows() {
+        return update().then(Mono.zip(lookupService.getSnapshot(), read(repository::findTraining)))
+                .flatMapMany(tuple -> Flux.fromIterable(tuple.getT2()).map(v -> toDto(tuple.getT1(), v)));
+    }
+
+    /**
+     * Bring the store up to date, then return every player's vector for their next fixture.
+     */
+    public Flux<PlayerFeatureRowDto> nextFixtureRows() {
+        return update().then(Mono.zip(lookupService.getSnapshot(), read(repository::findUpcoming)))
+                .flatMapMany(tuple -> Flux.fromIterable(tuple.getT2()).map(v -> toDto(tuple.getT1(), v)));
+    }
+
+    public Mono<Integer> update() {
+        return Mono.zip(lookupService.getSnapshot(), fixtureIndexService.getIndex(), incrementalIngestion.refresh())
+                .publishOn(Schedulers.boundedElastic())
+                .map(tuple -> apply(tuple.getT1(), tuple.getT2(), tuple.getT3()));
+    }
+
+    private synchronized int apply(BootstrapSnapshot snapshot,
+                                   FixtureIndex fixtures,
+                                   Map<Integer, List<FeatureBuilderService.MatchStats>> histories) {
+        String version = datasetService.featureVersion();
+        if (repository.countOtherVersions(version) > 0) {
+            int dropped = repository.deleteOtherVersions(version);
+            System.out.println("Feature store: definitions changed to " + version + ", recomputing (" + dropped + " stale vectors dropped)");
+        }
+
+        // playerId -> {history index, history hash} of the latest labelled vector
+        Map<Integer, Object[]> lastStored = new HashMap<>();
+        for (Object[] row : repository.lastStored(version)) {
+            lastStored.put(((Number) row[0]).intValue(), new Object[]{((Number) row[1]).intValue(), row[2]});
+        }
+
+        Instant now = Instant.now();
+        Integer currentGw = snapshot.currentGameweek();
+        List<PlayerFeatureVector> fresh = new ArrayList<>();
+        List<PlayerFeatureVector> upcoming = new ArrayList<>();
+        List<Integer> rebuilt = new ArrayList<>();
+
+        for (int playerId : snapshot.playerIds()) {
+            MatchHistory history = MatchHistory.of(histories.getOrDefault(playerId, List.of()));
+
+            int from = 1;
+            Object[] stored = lastStored.get(playerId);
+            if (stored != null) {
+                int last = (int) stored[0];
+                if (last < history.size() && stored[1] instanceof Long hash && history.hash(last + 1) == hash) {
+                    from = last + 1;
+                } else {
+                    rebuilt.add(playerId);
+                }
+            }
+
+            List<PlayerFeatureRowDto> rows = datasetService.trainingRowsFrom(snapshot, fixtures, playerId, history, from);
+            for (int k = 0; k < rows.size(); k++) {
+                PlayerFeatureRowDto r = rows.get(k);
+                if (r.gameweek() == null) continue; // postponed without a new date: no key yet
+                int index = from + k;
+                fresh.add(toEntity(r, version, index, history.hash(index + 1), now));
+            }
+
+            if (currentGw == null) continue;
+            FixtureIndex.Fixture next = fixtures.nextFor(snapshot.table().teamId(playerId, -1), currentGw);
+            if (next == null || next.event() == null) continue;
+            PlayerFeatureRowDto row = datasetService.nextFixtureRow(snapshot, playerId, history, next);
+            if (row != null) upcoming.add(toEntity(row, version, history.size(), history.hash(history.size()), now));
+        }
+
+        repository.replace(version, rebuilt, fresh, upcoming);
+        System.out.println("Feature store: " + fresh.size() + " new training vectors, " + upcoming.size() + " upcoming"
+                + (rebuilt.isEmpty() ? "" : ", " + rebuilt.size() + " players rebuilt after corrected matches"));
+        return fresh.size();
+    }
+
+    private <T> Mono<List<T>> read(Function<String, List<T>> query) {
+        String version = datasetService.featureVersion();
+        return Mono.fromCallable(() -> query.apply(version))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private PlayerFeatureVector toEntity(PlayerFeatureRowDto r, String version, int historyIndex, long historyHash, Instant now) {
+        return PlayerFeatureVector.builder()
+                .playerId(r.playerId())
+                .gameweek(r.gameweek())
+                .fixtureId(r.fixtureId())
+                .featureVersion(version)
+                .historyIndex(historyIndex)
+                .historyHash(historyHash)
+                .isHome(r.isHome())
+                .opponentTeamId(r.opponentTeamId())
+                .teamId(r.teamId())
+                .fixtureDifficulty(r.fixtureDifficulty())
+                .avgMinutes(r.avgMinutes5())
+                .avgPoints(r.avgPoints5())
+                .avgGoals(r.avgGoals5())
+                .avgAssists(r.avgAssists5())
+                .avgSaves(r.avgSaves5())
+                .avgCleanSheets(r.avgCleanSheets5())
+                .avgBonus(r.avgBonus5())
+                .avgGoalsConceded(r.avgGoalsConceded5())
+                .avgCbi(r.avgCbi5())
+                .avgYellow(r.avgYellow5())
+                .avgRed(r.avgRed5())
+                .windowFeatures(windowFeatures(r))
+                .labelPoints(r.labelTotalPoints())
+                .computedAt(now)
+                .build();
+    }
+
+    private PlayerFeatureRowDto toDto(BootstrapSnapshot snapshot, PlayerFeatureVector v) {
+        PlayerTable table = snapshot.table();
+        int positionId = table.positionId(v.getPlayerId(), 0);
+        return new PlayerFeatureRowDto(
+                v.getPlayerId(),
+                table.webName(v.getPlayerId(), "UNKNOWN"),
+                positionId,
+                table.positionName(positionId, "UNKNOWN"),
+
+                v.getFixtureId(),
+                v.getGameweek(),
+                v.getIsHome(),
+                v.getOpponentTeamId(),
+                v.getTeamId(),
+                v.getFixtureDifficulty(),
+
+                v.getAvgMinutes(),
+                v.getAvgPoints(),
+                v.getAvgGoals(),
+                v.getAvgAssists(),
+                v.getAvgSaves(),
+                v.getAvgCleanSheets(),
+                v.getAvgBonus(),
+                v.getAvgGoalsConceded(),
+                v.getAvgCbi(),
+                v.getAvgYellow(),
+                v.getAvgRed(),
+
+                featureMap(v.getWindowFeatures()),
+
+                v.getLabelPoints()
+        );
+    }
+
+    /**
+     * The row's features in DatasetService.featureNames() order; the version check keeps that order stable.
+     */
+    private double[] windowFeatures(PlayerFeatureRowDto r) {
+        String[] names = datasetService.featureNames();
+        double[] out = new double[names.length];
+        for (int f = 0; f < names.length; f++) {
+            Double v = r.features() == null ? null : r.features().get(names[f]);
+            out[f] = v == null ? 0.0 : v;
+        }
+        return out;
+    }
+
+    private Map<String, Double> featureMap(double[] values) {
+        String[] names = datasetService.featureNames();
+        Map<String, Double> out = new LinkedHashMap<>(names.length * 2);
+        if (values == null || values.length != names.length) return out;
+        for (int f = 0; f < names.length; f++) out.put(names[f], values[f]);
+        return out;
+    }
+}
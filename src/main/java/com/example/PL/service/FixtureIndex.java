@@ -0,0 +1,127 @@
+package com.example.PL.service;
+
+import tools.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of /fixtures/ indexed by fixture id and by (team, gameweek),
+ * so row building can resolve a match's teams and difficulty without scanning.
+ */
+public record FixtureIndex(
+        Instant fetchedAt,
+        List<Fixture> fixtures,
+        Map<Integer, Fixture> byId,
+        Map<Long, List<Fixture>> byTeamGameweek
+) {
+
+    private static final int MAX_GAMEWEEK = 38;
+
+    /**
+     * One fixture. Difficulty is from each side's point of view, as FPL publishes it;
+     * order is the position in the /fixtures/ response, which is kickoff order.
+     */
+    public record Fixture(
+            int id,
+            Integer event,
+            OffsetDateTime kickoffTime,
+            int teamH,
+            int teamA,
+            Integer teamHDifficulty,
+            Integer teamADifficulty,
+            boolean finished,
+            Integer teamHScore,
+            Integer teamAScore,
+            int order
+    ) {
+        public int teamFor(boolean home) {
+            return home ? teamH : teamA;
+        }
+
+        public int opponentFor(boolean home) {
+            return home ? teamA : teamH;
+        }
+
+        public Integer difficultyFor(boolean home) {
+            return home ? teamHDifficulty : teamADifficulty;
+        }
+    }
+
+    public static FixtureIndex fromJson(JsonNode fixturesJson, Instant fetchedAt) {
+        List<Fixture> fixtures = new ArrayList<>(fixturesJson.size());
+        int order = 0;
+        for (JsonNode f : fixturesJson) {
+            JsonNode kickoff = f.get("kickoff_time");
+            fixtures.add(new Fixture(
+                    f.get("id").asInt(),
+                    intOrNull(f.get("event")),
+                    (kickoff == null || kickoff.isNull()) ? null : OffsetDateTime.parse(kickoff.asText()),
+                    f.get("team_h").asInt(),
+                    f.get("team_a").asInt(),
+                    intOrNull(f.get("team_h_difficulty")),
+                    intOrNull(f.get("team_a_difficulty")),
+                    f.get("finished").asBoolean(false),
+                    intOrNull(f.get("team_h_score")),
+                    intOrNull(f.get("team_a_score")),
+                    order++
+            ));
+        }
+        return of(fetchedAt, fixtures);
+    }
+
+    public static FixtureIndex of(Instant fetchedAt, List<Fixture> fixtures) {
+        Map<Integer, Fixture> byId = new HashMap<>(fixtures.size() * 2);
+        Map<Long, List<Fixture>> byTeamGw = new HashMap<>();
+        for (Fixture f : fixtures) {
+            byId.put(f.id(), f);
+            if (f.event() == null) continue;
+            byTeamGw.computeIfAbsent(teamGwKey(f.teamH(), f.event()), k -> new ArrayList<>(1)).add(f);
+            byTeamGw.computeIfAbsent(teamGwKey(f.teamA(), f.event()), k -> new ArrayList<>(1)).add(f);
+        }
+        byTeamGw.replaceAll((k, v) -> List.copyOf(v));
+
+        return new FixtureIndex(
+                fetchedAt,
+                List.copyOf(fixtures),
+                Collections.unmodifiableMap(byId),
+                Collections.unmodifiableMap(byTeamGw)
+        );
+    }
+
+    public Fixture fixture(int fixtureId) {
+        return byId.get(fixtureId);
+    }
+
+    /**
+     * A team's fixtures in a gameweek: empty for a blank, two for a double.
+     */
+    public List<Fixture> forTeam(int teamId, int gameweek) {
+        return byTeamGameweek.getOrDefault(teamGwKey(teamId, gameweek), List.of());
+    }
+
+    /**
+     * A team's first unfinished fixture from the given gameweek on, or null if none is scheduled.
+     */
+    public Fixture nextFor(int teamId, int fromGameweek) {
+        for (int gw = fromGameweek; gw <= MAX_GAMEWEEK; gw++) {
+            for (Fixture f : forTeam(teamId, gw)) {
+                if (!f.finished()) return f;
+            }
+        }
+        return null;
+    }
+
+    private static long teamGwKey(int teamId, int gw) {
+        return ((long) teamId << 32) | gw;
+    }
+
+    private static Integer intOrNull(JsonNode n) {
+        return (n == null || n.isNull()) ? null : n.asInt();
+    }
+}
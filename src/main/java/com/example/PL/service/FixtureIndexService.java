@@ -0,0 +1,36 @@
+package com.example.PL.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Holds the current FixtureIndex, rebuilt from FplClient.getFixtures() when it goes stale.
+ */
+@Service
+public class FixtureIndexService {
+
+    private final SingleFlightCache<FixtureIndex> index;
+
+    public FixtureIndexService(FplClient fplClient,
+                               @Value("${fpl.fixtures.ttl:PT10M}") Duration ttl) {
+        this.index = new SingleFlightCache<>("Fixtures",
+                idx -> idx.fetchedAt().plus(ttl).isBefore(Instant.now()),
+                FixtureIndex::fetchedAt,
+                last -> fplClient.getFixtures().map(json -> FixtureIndex.fromJson(json, Instant.now())));
+    }
+
+    /**
+     * Current index; concurrent callers during a rebuild share one fetch and parse.
+     */
+    public Mono<FixtureIndex> getIndex() {
+        return index.get();
+    }
+
+    public void invalidate() {
+        index.invalidate();
+    }
+}
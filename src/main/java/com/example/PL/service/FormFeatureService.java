@@ -0,0 +1,145 @@
+package com.example.PL.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exponentially weighted form features (FormState) for each half-life in fpl.form.half-lives,
+ * named "ewma" + stat + "H" + half-life, e.g. ewmaPointsH4.
+ *
+ * Training rows get them from one fold over the history. Next-fixture rows built from held
+ * histories read a FormState kept per player, which only folds in matches it hasn't seen. Rows it
+ * has already folded in are not re-checked on each call: when upstream corrects a stored row,
+ * MatchHistoryStore reports the player as superseded and their state is dropped (invalidate), so
+ * the next advance rebuilds it. The states are saved in the warm-start file (see WarmStartService).
+ */
+@Service
+public class FormFeatureService {
+
+    private static final String[] STAT_NAMES = {
+            "Minutes", "Points", "Goals", "Assists", "Saves", "CleanSheets", "Bonus",
+            "GoalsConceded", "Cbi", "Yellow", "Red", "OwnGoals", "PenaltiesSaved", "PenaltiesMissed"
+    };
+
+    private final double[] decay;
+    private final String[] names;
+    private final String signature;
+
+    private final Map<Integer, FormState> states = new ConcurrentHashMap<>();
+
+    public FormFeatureService(@Value("${fpl.form.half-lives:2,4,8}") String halfLives) {
+        int[] h = Arrays.stream(halfLives.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .peek(v -> {
+                    if (v < 1) throw new IllegalArgumentException("fpl.form.half-lives must be positive, got " + v);
+                })
+                .distinct()
+                .sorted()
+                .toArray();
+
+        this.decay = new double[h.length];
+        this.names = new String[h.length * FormState.STATS];
+        for (int i = 0; i < h.length; i++) {
+            decay[i] = FormState.decayFor(h[i]);
+            for (int s = 0; s < FormState.STATS; s++) names[i * FormState.STATS + s] = "ewma" + STAT_NAMES[s] + "H" + h[i];
+        }
+        this.signature = Integer.toHexString(String.join(",", names).hashCode());
+    }
+
+    /**
+     * Feature names in value order.
+     */
+    public String[] names() {
+        return names;
+    }
+
+    public int width() {
+        return names.length;
+    }
+
+    public String signature() {
+        return signature;
+    }
+
+    public FormState newState() {
+        return new FormState(decay);
+    }
+
+    /**
+     * Values for rows from..to-1 of a history, row-major (row from + k starts at k * width()),
+     * each from the matches before it. Row n is the next, unplayed fixture, so to may be up to n + 1.
+     */
+    public double[] forward(MatchHistory history, int from, int to) {
+        double[] out = new double[Math.max(0, to - from) * width()];
+        FormState state = newState();
+        for (int i = 0; i < to; i++) {
+            if (i >= from) state.values(out, (i - from) * width());
+            if (i < history.size()) state.add(history, i);
+        }
+        return out;
+    }
+
+    /**
+     * Bring the player's stored state up to date with a scored history and return its values. Only
+     * matches after the last one folded in are added. The state is rebuilt if the history is shorter
+     * than what it has seen or its last seen fixture has moved; corrections to earlier rows arrive
+     * through invalidate instead.
+     */
+    public double[] advance(int playerId, MatchHistory history) {
+        double[] out = new double[width()];
+        states.compute(playerId, (id, state) -> {
+            if (state == null || !continues(history, state)) state = newState();
+            for (int i = state.matches(); i < history.size(); i++) state.add(history, i);
+            state.values(out, 0);
+            return state;
+        });
+        return out;
+    }
+
+    private static boolean continues(MatchHistory history, FormState state) {
+        int seen = state.matches();
+        if (seen > history.size()) return false;
+        return seen == 0 || history.fixtureId[seen - 1] == state.lastFixtureId();
+    }
+
+    /**
+     * Drop a player's state because rows it has folded in were corrected; the next advance rebuilds it.
+     */
+    public void invalidate(int playerId) {
+        states.remove(playerId);
+    }
+
+    public Map<Integer, FormState> snapshotState() {
+        Map<Integer, FormState> out = new HashMap<>();
+        // Copied under each entry's lock, so a concurrent advance() is never seen half-applied
+        for (Integer id : states.keySet()) {
+            states.computeIfPresent(id, (k, s) -> {
+                out.put(k, s.copy());
+                return s;
+            });
+        }
+        return out;
+    }
+
+    /**
+     * Seed per-player states, e.g. from a warm-start file. States saved under a different
+     * fpl.form.half-lives (see signature()) must not be passed in.
+     */
+    public void restoreState(Map<Integer, FormState> state) {
+        states.putAll(state);
+    }
+
+    /**
+     * A state saved from sums(), weights() and the rest, under this service's half-lives.
+     */
+    public FormState restore(double[] sums, double[] weights, int matches, int lastFixtureId) {
+        return new FormState(decay, sums, weights, matches, lastFixtureId);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.PL.service;
+
+/**
+ * Exponentially weighted per-match averages of every MatchStats stat plus custom points, for a
+ * fixed set of half-lives, kept as running state so a new match is folded in with O(1) work.
+ *
+ * For each half-life h the decay is d = 2^(-1/h) and the state is sum = d * sum + x and
+ * weight = d * weight + 1, so the average sum / weight weights a match h matches old half as much
+ * as the latest one, and the first few matches aren't pulled towards zero.
+ */
+public final class FormState {
+
+    public static final int MINUTES = 0;
+    public static final int POINTS = 1;
+    public static final int GOALS = 2;
+    public static final int ASSISTS = 3;
+    public static final int SAVES = 4;
+    public static final int CLEAN_SHEETS = 5;
+    public static final int BONUS = 6;
+    public static final int GOALS_CONCEDED = 7;
+    public static final int CBI = 8;
+    public static final int YELLOW = 9;
+    public static final int RED = 10;
+    public static final int OWN_GOALS = 11;
+    public static final int PENALTIES_SAVED = 12;
+    public static final int PENALTIES_MISSED = 13;
+    public static final int STATS = 14;
+
+    private final double[] decay;
+    private final double[] sums;
+    private final double[] weights;
+    private int matches;
+    private int lastFixtureId = -1;
+
+    /**
+     * decay[h] is the per-match decay of the h-th half-life; the array is shared, not copied.
+     */
+    public FormState(double[] decay) {
+        this.decay = decay;
+        this.sums = new double[decay.length * STATS];
+        this.weights = new double[decay.length];
+    }
+
+    /**
+     * A state restored from values saved with sums(), weights(), matches() and lastFixtureId().
+     */
+    FormState(double[] decay, double[] sums, double[] weights, int matches, int lastFixtureId) {
+        if (sums.length != decay.length * STATS || weights.length != decay.length) {
+            throw new IllegalArgumentException("saved form state doesn't match " + decay.length + " half-lives");
+        }
+        this.decay = decay;
+        this.sums = sums;
+        this.weights = weights;
+        this.matches = matches;
+        this.lastFixtureId = lastFixtureId;
+    }
+
+    public static double decayFor(double halfLife) {
+        return Math.pow(0.5, 1.0 / halfLife);
+    }
+
+    /**
+     * Fold in row i of a scored history.
+     */
+    public void add(MatchHistory h, int i) {
+        double[] x = new double[STATS];
+        x[MINUTES] = h.minutes[i];
+        x[POINTS] = h.customPoints[i];
+        x[GOALS] = h.goals[i];
+        x[ASSISTS] = h.assists[i];
+        x[SAVES] = h.saves[i];
+        x[CLEAN_SHEETS] = h.cleanSheets[i];
+        x[BONUS] = h.bonus[i];
+        x[GOALS_CONCEDED] = h.goalsConceded[i];
+        x[CBI] = h.cbi[i];
+        x[YELLOW] = h.yellow[i];
+        x[RED] = h.red[i];
+        x[OWN_GOALS] = h.ownGoals[i];
+        x[PENALTIES_SAVED] = h.penaltiesSaved[i];
+        x[PENALTIES_MISSED] = h.penaltiesMissed[i];
+        add(h.fixtureId[i], x);
+    }
+
+    private void add(int fixtureId, double[] x) {
+        for (int h = 0; h < decay.length; h++) {
+            double d = decay[h];
+            int base = h * STATS;
+            for (int s = 0; s < STATS; s++) sums[base + s] = d * sums[base + s] + x[s];
+            weights[h] = d * weights[h] + 1;
+        }
+        matches++;
+        lastFixtureId = fixtureId;
+    }
+
+    /**
+     * Matches folded in so far; the state reflects history[0..matches).
+     */
+    public int matches() {
+        return matches;
+    }
+
+    public int lastFixtureId() {
+        return lastFixtureId;
+    }
+
+    public FormState copy() {
+        return new FormState(decay, sums.clone(), weights.clone(), matches, lastFixtureId);
+    }
+
+    double[] sums() {
+        return sums;
+    }
+
+    double[] weights() {
+        return weights;
+    }
+
+    /**
+     * Every average into out[offset..], half-life-major (all stats for the first half-life first).
+     * All zero before the first match.
+     */
+    public void values(double[] out, int offset) {
+        for (int h = 0; h < decay.length; h++) {
+            double w = weights[h];
+            int base = h * STATS;
+            for (int s = 0; s < STATS; s++) out[offset + base + s] = w == 0 ? 0.0 : sums[base + s] / w;
+        }
+    }
+}
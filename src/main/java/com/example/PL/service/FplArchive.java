@@ -0,0 +1,77 @@
+package com.example.PL.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Single-file, gzip'd archive of raw FPL API responses keyed by request path
+ * (e.g. "/bootstrap-static/", "/element-summary/12/").
+ */
+public final class FplArchive {
+
+    private static final int MAGIC = 0x46504c41; // "FPLA"
+    private static final int FORMAT_VERSION = 1;
+
+    private FplArchive() {}
+
+    public static void write(Path file, Map<String, byte[]> responses) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "fpl-archive-", ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(responses.size());
+                for (Map.Entry<String, byte[]> e : responses.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeInt(e.getValue().length);
+                    out.write(e.getValue());
+                }
+            }
+
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write FPL archive " + file, e);
+        }
+    }
+
+    public static Map<String, byte[]> read(Path file) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 64 * 1024)))) {
+            if (in.readInt() != MAGIC) throw new IllegalStateException(file + " is not an FPL archive");
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported FPL archive version " + version + " in " + file);
+            }
+
+            int count = in.readInt();
+            Map<String, byte[]> out = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                out.put(path, body);
+            }
+            return out;
+        } catch (EOFException e) {
+            throw new IllegalStateException("FPL archive " + file + " is truncated", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read FPL archive " + file, e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.PL.service;
+
+import tools.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Captures bootstrap-static, fixtures, every element-summary and every finished gameweek's
+ * event-live into an {@link FplArchive}, so runs in any fpl.ingest.mode can be replayed offline
+ * against the stub server.
+ */
+@Service
+public class FplArchiveRecorder {
+
+    private final FplClient fplClient;
+    private final ObjectMapper objectMapper;
+    private final String recordTo;
+
+    public FplArchiveRecorder(FplClient fplClient,
+                              ObjectMapper objectMapper,
+                              @Value("${fpl.archive.record-to:}") String recordTo) {
+        this.fplClient = fplClient;
+        this.objectMapper = objectMapper;
+        this.recordTo = recordTo;
+    }
+
+    /**
+     * Record once at startup when fpl.archive.record-to is set.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordOnStartup() {
+        if (recordTo.isBlank()) return;
+        record(Path.of(recordTo))
+                .subscribe(
+                        count -> System.out.println("✓ Recorded " + count + " FPL responses to " + recordTo),
+                        error -> System.err.println("✗ FPL recording failed: " + error.getMessage())
+                );
+    }
+
+    /**
+     * Fetch everything a training / prediction run touches and write it to one archive file.
+     * bootstrap-static and fixtures are required; a player or gameweek that still fails after the
+     * limiter's retries is logged and left out, and replay serves a 404 for it like a missing player.
+     * Emits the number of responses recorded.
+     */
+    public Mono<Integer> record(Path file) {
+        return Mono.zip(fplClient.getBootstrapStaticBytes(), fplClient.getFixturesBytes())
+                .flatMap(tuple -> {
+                    byte[] bootstrap = tuple.getT1();
+                    byte[] fixtures = tuple.getT2();
+                    BootstrapSnapshot snapshot = BootstrapSnapshot.fromJson(objectMapper.readTree(bootstrap), Instant.now());
+
+                    List<Integer> finished = new ArrayList<>();
+                    for (BootstrapSnapshot.Event e : snapshot.events()) {
+                        if (e.finished()) finished.add(e.id());
+                    }
+                    AtomicInteger skipped = new AtomicInteger();
+
+                    Flux<Tuple2<String, byte[]>> summaries = Flux.fromIterable(snapshot.playerIds())
+                            .flatMap(id -> optional("/element-summary/" + id + "/", fplClient.getElementSummaryBytes(id), skipped),
+                                    fplClient.maxConcurrency());
+                    Flux<Tuple2<String, byte[]>> lives = Flux.fromIterable(finished)
+                            .flatMap(gw -> optional("/event/" + gw + "/live/", fplClient.getEventLive(gw), skipped),
+                                    fplClient.maxConcurrency());
+
+                    return Flux.concat(summaries, lives)
+                            .collectList()
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(recorded -> {
+                                Map<String, byte[]> responses = new LinkedHashMap<>();
+                                responses.put("/bootstrap-static/", bootstrap);
+                                responses.put("/fixtures/", fixtures);
+                                for (var r : recorded) responses.put(r.getT1(), r.getT2());
+                                FplArchive.write(file, responses);
+                                if (skipped.get() > 0) {
+                                    System.err.println("✗ FPL recording skipped " + skipped.get() + " responses that failed");
+                                }
+                                return responses.size();
+                            });
+                });
+    }
+
+    private static Mono<Tuple2<String, byte[]>> optional(String path, Mono<byte[]> body, AtomicInteger skipped) {
+        return body
+                .map(b -> Tuples.of(path, b))
+                .onErrorResume(e -> {
+                    skipped.incrementAndGet();
+                    System.err.println("✗ Not recording " + path + ": " + e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
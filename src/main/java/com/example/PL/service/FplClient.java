@@ -1,37 +1,164 @@
 package com.example.PL.service;
 
 import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.Optional;
 
 @Service
 public class FplClient {
 
+    private static final String BOOTSTRAP_STATIC = "bootstrap-static";
+    private static final String ELEMENT_SUMMARY = "element-summary";
+    private static final String EVENT_LIVE = "event-live";
+
     private final WebClient fplWebClient;
+    private final FplResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final FplConcurrencyLimiter limiter;
+    private final TieredFplCache tieredCache;
 
-    public FplClient(WebClient fplWebClient) {
+    public FplClient(WebClient fplWebClient,
+                     FplResponseCache responseCache,
+                     ObjectMapper objectMapper,
+                     FplConcurrencyLimiter limiter,
+                     TieredFplCache tieredCache) {
         this.fplWebClient = fplWebClient;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.limiter = limiter;
+        this.tieredCache = tieredCache;
     }
 
     public Mono<JsonNode> getBootstrapStatic() {
-        return fplWebClient.get()
+        return getBootstrapStaticBytes()
+                .map(objectMapper::readTree);
+    }
+
+    public Mono<JsonNode> getFixtures() {
+        return getFixturesBytes()
+                .map(objectMapper::readTree);
+    }
+
+    public Mono<byte[]> getBootstrapStaticBytes() {
+        return tieredCache.get(BOOTSTRAP_STATIC, this::fetchBootstrapStatic);
+    }
+
+    /**
+     * Parsed bootstrap-static, stamped with when it was fetched from upstream rather than when it
+     * came out of the cache, and never from a copy fetched before notBefore.
+     */
+    public Mono<BootstrapSnapshot> getBootstrapSnapshot(Instant notBefore) {
+        return tieredCache.getEntry(BOOTSTRAP_STATIC, notBefore, this::fetchBootstrapStatic)
+                .map(e -> BootstrapSnapshot.fromJson(objectMapper.readTree(e.body()), e.fetchedAt()));
+    }
+
+    private Mono<byte[]> fetchBootstrapStatic() {
+        return limiter.execute(BOOTSTRAP_STATIC, () -> fplWebClient.get()
                 .uri("/bootstrap-static/")
                 .retrieve()
-                .bodyToMono(JsonNode.class);
+                .bodyToMono(byte[].class));
     }
 
-    public Mono<JsonNode> getFixtures() {
-        return fplWebClient.get()
+    public Mono<byte[]> getFixturesBytes() {
+        return tieredCache.get("fixtures", () -> limiter.execute("fixtures", () -> fplWebClient.get()
                 .uri("/fixtures/")
                 .retrieve()
-                .bodyToMono(JsonNode.class);
+                .bodyToMono(byte[].class)));
     }
 
     public Mono<JsonNode> getElementSummary(int playerId) {
-        return fplWebClient.get()
-                .uri("/element-summary/{id}/", playerId)
-                .retrieve()
-                .bodyToMono(JsonNode.class);
+        return getElementSummaryBytes(playerId)
+                .map(objectMapper::readTree);
+    }
+
+    /**
+     * Raw element-summary body, served from the disk cache when it is fresh
+     * and revalidated with If-None-Match / If-Modified-Since when it isn't.
+     */
+    public Mono<byte[]> getElementSummaryBytes(int playerId) {
+        return tieredCache.get(ELEMENT_SUMMARY + ":" + playerId,
+                () -> cachedGet(ELEMENT_SUMMARY, playerId, "/element-summary/{id}/"));
+    }
+
+    /**
+     * Every player's stats for one gameweek in a single response. Finished gameweeks
+     * rarely change, so this goes through the same disk cache as element-summary.
+     */
+    public Mono<byte[]> getEventLive(int gameweek) {
+        return tieredCache.get(EVENT_LIVE + ":" + gameweek,
+                () -> cachedGet(EVENT_LIVE, gameweek, "/event/{id}/live/"));
+    }
+
+    public FplResponseCache.Stats cacheStats() {
+        return responseCache.stats();
+    }
+
+    public FplConcurrencyLimiter.Stats limiterStats() {
+        return limiter.stats();
+    }
+
+    /**
+     * Useful flatMap concurrency for callers fanning out over players; the limiter does the real gating.
+     */
+    public int maxConcurrency() {
+        return limiter.maxLimit();
+    }
+
+    private Mono<byte[]> cachedGet(String endpoint, int id, String uriTemplate) {
+        if (!responseCache.isEnabled()) {
+            return limiter.execute(endpoint, () -> fplWebClient.get()
+                    .uri(uriTemplate, id)
+                    .retrieve()
+                    .bodyToMono(byte[].class));
+        }
+
+        return Mono.fromCallable(() -> Optional.ofNullable(responseCache.read(endpoint, id)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(opt -> {
+                    FplResponseCache.CachedResponse cached = opt.orElse(null);
+                    if (cached != null && responseCache.isFresh(cached)) {
+                        responseCache.recordHit(cached);
+                        return Mono.just(cached.body());
+                    }
+
+                    return limiter.execute(endpoint, () -> fplWebClient.get()
+                            .uri(uriTemplate, id)
+                            .headers(h -> {
+                                if (cached == null) return;
+                                if (cached.etag() != null) h.set(HttpHeaders.IF_NONE_MATCH, cached.etag());
+                                if (cached.lastModified() != null) h.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+                            })
+                            .exchangeToMono(resp -> {
+                                if (resp.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+                                    responseCache.recordRevalidated(cached);
+                                    return resp.releaseBody()
+                                            .then(Mono.fromRunnable(() -> responseCache.touch(endpoint, id))
+                                                    .subscribeOn(Schedulers.boundedElastic()))
+                                            .thenReturn(cached.body());
+                                }
+                                if (!resp.statusCode().is2xxSuccessful()) {
+                                    return resp.<byte[]>createError();
+                                }
+
+                                HttpHeaders headers = resp.headers().asHttpHeaders();
+                                String etag = headers.getETag();
+                                String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+
+                                return resp.bodyToMono(byte[].class)
+                                        .publishOn(Schedulers.boundedElastic())
+                                        .doOnNext(body -> {
+                                            responseCache.recordMiss();
+                                            responseCache.write(endpoint, id, body, etag, lastModified);
+                                        });
+                            }));
+                });
     }
 }
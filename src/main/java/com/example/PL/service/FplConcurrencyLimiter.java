@@ -0,0 +1,303 @@
+package com.example.PL.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Shared gate in front of every FPL upstream call.
+ *
+ * Concurrency follows AIMD: the limit creeps up by ~1 per window of fast successes and halves
+ * on a 429, a 5xx or a timeout. Failed calls are retried with jittered backoff, but only while
+ * the retry budget (a fraction of recent requests) has tokens, so a struggling upstream doesn't
+ * get hit with a retry storm.
+ *
+ * In stats(), dropped counts calls that failed with a retryable error (overload or connection)
+ * after running out of retries or retry tokens, i.e. load shed; failed counts calls that ended on
+ * an error that is never retried, such as a 404.
+ */
+@Service
+public class FplConcurrencyLimiter {
+
+    private static final double RETRY_BUDGET_RATIO = 0.2;
+    private static final double RETRY_BUDGET_MIN = 10;
+    private static final double RETRY_BUDGET_MAX = 100;
+    private static final Duration DECREASE_COOLDOWN = Duration.ofSeconds(1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final Duration targetLatency;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Duration defaultTimeout;
+    private final Map<String, Duration> timeouts;
+
+    private final Object lock = new Object();
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+    private double retryTokens = RETRY_BUDGET_MIN;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public record Stats(long requests, long retried, long throttled, long dropped, long failed, int limit, int inFlight) {
+        public Stats minus(Stats before) {
+            return new Stats(
+                    requests - before.requests,
+                    retried - before.retried,
+                    throttled - before.throttled,
+                    dropped - before.dropped,
+                    failed - before.failed,
+                    limit,
+                    inFlight
+            );
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + requests + ", retried=" + retried + ", throttled=" + throttled
+                    + ", dropped=" + dropped + ", failed=" + failed + ", limit=" + limit + ", inFlight=" + inFlight;
+        }
+    }
+
+    /**
+     * One slot of inFlight. Released at most once, by whichever comes first: the call finishing,
+     * or the caller cancelling before the call ever started.
+     */
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) FplConcurrencyLimiter.this.release();
+        }
+    }
+
+    /**
+     * A queued acquire. cancelled and permit are only read and written under lock, so a cancel
+     * either stops the grant or sees the permit it has to give back.
+     */
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        boolean cancelled;
+        Permit permit;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    public FplConcurrencyLimiter(
+            @Value("${fpl.limiter.initial-limit:6}") int initialLimit,
+            @Value("${fpl.limiter.min-limit:1}") int minLimit,
+            @Value("${fpl.limiter.max-limit:32}") int maxLimit,
+            @Value("${fpl.limiter.target-latency:PT2S}") Duration targetLatency,
+            @Value("${fpl.limiter.max-retries:3}") int maxRetries,
+            @Value("${fpl.limiter.retry-backoff:PT0.5S}") Duration retryBackoff,
+            @Value("${fpl.timeout.default:PT15S}") Duration defaultTimeout,
+            @Value("${fpl.timeout.bootstrap-static:PT30S}") Duration bootstrapTimeout,
+            @Value("${fpl.timeout.fixtures:PT20S}") Duration fixturesTimeout,
+            @Value("${fpl.timeout.element-summary:PT10S}") Duration elementSummaryTimeout
+    ) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.targetLatency = targetLatency;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.defaultTimeout = defaultTimeout;
+        this.timeouts = Map.of(
+                "bootstrap-static", bootstrapTimeout,
+                "fixtures", fixturesTimeout,
+                "element-summary", elementSummaryTimeout
+        );
+    }
+
+    /**
+     * Upper bound on useful caller-side parallelism; anything above this just queues here.
+     */
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    public Stats stats() {
+        int current;
+        int running;
+        synchronized (lock) {
+            current = (int) limit;
+            running = inFlight;
+        }
+        return new Stats(requests.get(), retried.get(), throttled.get(), dropped.get(), failed.get(), current, running);
+    }
+
+    /**
+     * Run an upstream call under the shared limit, with the endpoint's timeout and budgeted retries.
+     * The supplier is invoked once per attempt.
+     */
+    public <T> Mono<T> execute(String endpoint, Supplier<Mono<T>> call) {
+        Duration timeout = timeouts.getOrDefault(endpoint, defaultTimeout);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean wasThrottled = new AtomicBoolean();
+
+        Mono<T> attempt = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            depositRetryToken();
+            return acquire().flatMap(permit -> {
+                long start = System.nanoTime();
+                return call.get()
+                        .timeout(timeout)
+                        .doOnSuccess(v -> onSuccess(System.nanoTime() - start))
+                        .doOnError(e -> {
+                            if (isThrottle(e)) wasThrottled.set(true);
+                            if (isOverload(e)) onOverload();
+                        })
+                        .doFinally(signal -> permit.release());
+            });
+        });
+
+        return attempt
+                .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                        .jitter(0.5)
+                        .filter(e -> isRetryable(e) && tryWithdrawRetryToken())
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSubscribe(s -> requests.incrementAndGet())
+                // A retryable error only gets this far once retries or retry tokens ran out
+                .doOnError(e -> (isRetryable(e) ? dropped : failed).incrementAndGet())
+                .doFinally(signal -> {
+                    if (attempts.get() > 1) retried.incrementAndGet();
+                    if (wasThrottled.get()) throttled.incrementAndGet();
+                });
+    }
+
+    /**
+     * A permit once a slot is free. A permit is granted under lock but delivered outside it, so a
+     * cancel can land in between, when success() is a no-op and the call (and its release) never
+     * runs: the cancel hook hands the permit back in that case.
+     */
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(() -> cancel(waiter));
+            synchronized (lock) {
+                if (waiter.cancelled) return;
+                if (inFlight < (int) limit) {
+                    grant(waiter);
+                } else {
+                    waiters.add(waiter);
+                    return;
+                }
+            }
+            sink.success(waiter.permit);
+        });
+    }
+
+    private void cancel(Waiter waiter) {
+        Permit permit;
+        synchronized (lock) {
+            waiter.cancelled = true;
+            permit = waiter.permit;
+            if (permit == null) waiters.remove(waiter);
+        }
+        // Releasing twice is a no-op, so this is safe even if the call did start and finishes later
+        if (permit != null) permit.release();
+    }
+
+    private void release() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (lock) {
+            inFlight--;
+            grantWaiting(granted);
+        }
+        granted.forEach(w -> w.sink.success(w.permit));
+    }
+
+    // Caller holds lock
+    private void grant(Waiter w) {
+        inFlight++;
+        w.permit = new Permit();
+    }
+
+    // Caller holds lock
+    private void grantWaiting(List<Waiter> granted) {
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            Waiter w = waiters.poll();
+            if (w.cancelled) continue;
+            grant(w);
+            granted.add(w);
+        }
+    }
+
+    private void onSuccess(long latencyNanos) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (lock) {
+            if (latencyNanos <= targetLatency.toNanos()) {
+                // Only grow when we're actually using the limit we have
+                if (inFlight >= limit / 2) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            } else {
+                limit = Math.max(minLimit, limit * 0.95);
+            }
+            grantWaiting(granted);
+        }
+        granted.forEach(w -> w.sink.success(w.permit));
+    }
+
+    private void onOverload() {
+        synchronized (lock) {
+            // A burst of failures from one slow spell should only halve once
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos < DECREASE_COOLDOWN.toNanos()) return;
+            lastDecreaseNanos = now;
+            limit = Math.max(minLimit, limit / 2);
+        }
+    }
+
+    private void depositRetryToken() {
+        synchronized (lock) {
+            retryTokens = Math.min(RETRY_BUDGET_MAX, retryTokens + RETRY_BUDGET_RATIO);
+        }
+    }
+
+    private boolean tryWithdrawRetryToken() {
+        synchronized (lock) {
+            if (retryTokens < 1) return false;
+            retryTokens -= 1;
+            return true;
+        }
+    }
+
+    private static boolean isThrottle(Throwable e) {
+        return e instanceof WebClientResponseException w && w.getStatusCode().value() == 429;
+    }
+
+    private static boolean isOverload(Throwable e) {
+        return isThrottle(e)
+                || e instanceof TimeoutException
+                || (e instanceof WebClientResponseException w && w.getStatusCode().is5xxServerError());
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return isOverload(e) || e instanceof WebClientRequestException;
+    }
+}
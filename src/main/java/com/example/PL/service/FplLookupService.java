@@ -1,95 +1,104 @@
 package com.example.PL.service;
 
-import tools.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class FplLookupService {
-    private final FplClient fplClient;
+    private final Duration ttl;
+    private final SingleFlightCache<BootstrapSnapshot> snapshot;
 
-    public FplLookupService(FplClient fplClient) {
-        this.fplClient = fplClient;
+    public FplLookupService(FplClient fplClient,
+                            @Value("${fpl.bootstrap.ttl:PT10M}") Duration ttl) {
+        this.ttl = ttl;
+        this.snapshot = new SingleFlightCache<>("Bootstrap", this::isStale, BootstrapSnapshot::fetchedAt,
+                last -> fplClient.getBootstrapSnapshot(notBefore(last)));
+    }
+
+    /**
+     * Parsed bootstrap-static, refreshed when the TTL runs out or the next gameweek deadline passes.
+     * Concurrent callers during a refresh share a single upstream request.
+     */
+    public Mono<BootstrapSnapshot> getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Drop the cached snapshot so the next lookup fetches a fresh one.
+     */
+    public void invalidate() {
+        snapshot.invalidate();
+    }
+
+    /**
+     * Install a snapshot restored from disk if nothing has been fetched yet. It keeps its original
+     * fetchedAt, so it is refreshed on the usual TTL / deadline rules.
+     */
+    public void seed(BootstrapSnapshot restored) {
+        snapshot.seed(restored);
+    }
+
+    /**
+     * Last snapshot we hold, without triggering a fetch.
+     */
+    public BootstrapSnapshot peek() {
+        return snapshot.peek();
+    }
+
+    private boolean isStale(BootstrapSnapshot snap) {
+        if (snap.fetchedAt().plus(ttl).isBefore(Instant.now())) return true;
+        return passedDeadline(snap) != null;
+    }
+
+    /**
+     * Oldest upstream fetch a refresh may return: nothing past the TTL, and nothing from before a
+     * deadline that made the last snapshot stale, even if the response cache still holds such a copy.
+     */
+    private Instant notBefore(BootstrapSnapshot last) {
+        Instant notBefore = Instant.now().minus(ttl);
+        Instant deadline = last == null ? null : passedDeadline(last);
+        return deadline != null && deadline.isAfter(notBefore) ? deadline : notBefore;
+    }
+
+    /**
+     * The deadline that rolled a gameweek over since the snapshot was fetched (so its events /
+     * fixtures flags are out of date), or null.
+     */
+    private static Instant passedDeadline(BootstrapSnapshot snap) {
+        OffsetDateTime deadline = snap.nextDeadline();
+        if (deadline == null) return null;
+        Instant d = deadline.toInstant();
+        return d.isAfter(snap.fetchedAt()) && d.isBefore(Instant.now()) ? d : null;
     }
 
     public Mono<Map<Integer, String>> getTeamIdToNameMap() {
-        return fplClient.getBootstrapStatic()
-                .map(bootstrap -> {
-                    Map<Integer, String> map = new HashMap<>();
-                    for (JsonNode team : bootstrap.get("teams")) {
-                        map.put(team.get("id").asInt(), team.get("name").asText());
-                    }
-                    return map;
-                });
+        return getSnapshot().map(BootstrapSnapshot::teamNames);
     }
 
     public Mono<Map<Integer, String>> getPlayerIdToNameMap() {
-        return fplClient.getBootstrapStatic()
-                .map(bootstrap -> {
-                    Map<Integer, String> map = new HashMap<>();
-                    for (JsonNode p : bootstrap.get("elements")) {
-                        int id = p.get("id").asInt();
-                        String name = p.get("web_name").asText(); // "Salah", "Haaland", etc.
-                        map.put(id, name);
-                    }
-                    return map;
-                });
+        return getSnapshot().map(BootstrapSnapshot::playerWebNames);
     }
 
     public Mono<Map<Integer, String>> getPositionIdToNameMap() {
-        return fplClient.getBootstrapStatic()
-                .map(bootstrap -> {
-                    Map<Integer, String> map = new HashMap<>();
-                    JsonNode types = bootstrap.get("element_types");
-                    for (int i = 0; i < types.size(); i++) {
-                        JsonNode t = types.get(i);
-                        map.put(t.get("id").asInt(), t.get("singular_name").asText()); // "Goalkeeper"
-                    }
-                    return map;
-                });
+        return getSnapshot().map(BootstrapSnapshot::positionNames);
     }
 
     public Mono<Map<Integer, String>> getPlayerIdToWebNameMap() {
-        return fplClient.getBootstrapStatic()
-                .map(bootstrap -> {
-                    Map<Integer, String> map = new HashMap<>();
-                    JsonNode players = bootstrap.get("elements");
-                    for (int i = 0; i < players.size(); i++) {
-                        JsonNode p = players.get(i);
-                        map.put(p.get("id").asInt(), p.get("web_name").asText());
-                    }
-                    return map;
-                });
+        return getSnapshot().map(BootstrapSnapshot::playerWebNames);
     }
 
     public Mono<Map<Integer, Integer>> getPlayerIdToPositionIdMap() {
-        return fplClient.getBootstrapStatic()
-                .map(bootstrap -> {
-                    Map<Integer, Integer> map = new HashMap<>();
-                    JsonNode players = bootstrap.get("elements");
-                    for (int i = 0; i < players.size(); i++) {
-                        JsonNode p = players.get(i);
-                        map.put(p.get("id").asInt(), p.get("element_type").asInt());
-                    }
-                    return map;
-                });
+        return getSnapshot().map(BootstrapSnapshot::playerPositionIds);
     }
 
     public Mono<List<Integer>> getAllPlayerIds() {
-        return fplClient.getBootstrapStatic()
-                .map(bootstrap -> {
-                    JsonNode players = bootstrap.get("elements");
-                    List<Integer> ids = new ArrayList<>(players.size());
-                    for (int i = 0; i < players.size(); i++) {
-                        ids.add(players.get(i).get("id").asInt());
-                    }
-                    return ids;
-                });
-
+        return getSnapshot().map(BootstrapSnapshot::playerIds);
     }
 }
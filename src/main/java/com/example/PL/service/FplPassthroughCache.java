@@ -0,0 +1,86 @@
+package com.example.PL.service;
+
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-send copies of whole upstream bodies for the passthrough endpoints.
+ *
+ * Each body is kept raw and gzip'd with a content-hash ETag, and rebuilt only when the
+ * bytes coming out of FplClient are a different body. Nothing here parses JSON.
+ */
+@Service
+public class FplPassthroughCache {
+
+    public record Entry(byte[] raw, byte[] gzip, String etag, Instant builtAt) {
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+    }
+
+    private final FplClient fplClient;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public FplPassthroughCache(FplClient fplClient) {
+        this.fplClient = fplClient;
+    }
+
+    public Mono<Entry> bootstrapStatic() {
+        return get("bootstrap-static", fplClient::getBootstrapStaticBytes);
+    }
+
+    public Mono<Entry> fixtures() {
+        return get("fixtures", fplClient::getFixturesBytes);
+    }
+
+    /**
+     * FplClient's cache already coalesces concurrent misses and hands back the same array
+     * while it's fresh, so the identity check makes a hit free; a new array is hashed and
+     * compressed once, under the key's lock, and reused if its content didn't change.
+     */
+    private Mono<Entry> get(String key, Supplier<Mono<byte[]>> bytes) {
+        return bytes.get().map(body -> {
+            Entry e = entries.get(key);
+            if (e != null && e.raw() == body) return e;
+            return entries.compute(key, (k, existing) -> {
+                if (existing != null && existing.raw() == body) return existing;
+                String etag = etagOf(body);
+                if (existing != null && existing.etag().equals(etag)) {
+                    return new Entry(body, existing.gzip(), etag, existing.builtAt());
+                }
+                return new Entry(body, gzip(body), etag, Instant.now());
+            });
+        });
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.PL.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed cache of raw FPL response bodies plus their ETag / Last-Modified validators.
+ * One file per (endpoint, id); the file's mtime is when the body was last confirmed current.
+ */
+@Service
+public class FplResponseCache {
+
+    private static final int MAGIC = 0x46504c43; // "FPLC"
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path dir;
+    private final boolean enabled;
+    private final Duration freshFor;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesFromCache = new AtomicLong();
+
+    public record CachedResponse(byte[] body, String etag, String lastModified, Instant storedAt) {}
+
+    public record Stats(long hits, long revalidated, long misses, long bytesFromCache) {
+        public Stats minus(Stats before) {
+            return new Stats(
+                    hits - before.hits,
+                    revalidated - before.revalidated,
+                    misses - before.misses,
+                    bytesFromCache - before.bytesFromCache
+            );
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", revalidated(304)=" + revalidated + ", misses=" + misses
+                    + ", savedKb=" + (bytesFromCache / 1024);
+        }
+    }
+
+    public FplResponseCache(
+            @Value("${fpl.cache.dir:.fpl-cache}") String dir,
+            @Value("${fpl.cache.enabled:true}") boolean enabled,
+            @Value("${fpl.cache.fresh-for:PT5M}") Duration freshFor
+    ) {
+        this.dir = Path.of(dir);
+        this.enabled = enabled;
+        this.freshFor = freshFor;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached entry, or null if there is none (or it can't be read).
+     */
+    public CachedResponse read(String endpoint, int id) {
+        if (!enabled) return null;
+        Path file = fileFor(endpoint, id);
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(raw)) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+            String etag = emptyToNull(in.readUTF());
+            String lastModified = emptyToNull(in.readUTF());
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new CachedResponse(body, etag, lastModified, Files.getLastModifiedTime(file).toInstant());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable cache entry " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void write(String endpoint, int id, byte[] body, String etag, String lastModified) {
+        if (!enabled) return;
+        Path file = fileFor(endpoint, id);
+        try {
+            Files.createDirectories(file.getParent());
+
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(body.length + 128);
+            DataOutputStream out = new DataOutputStream(buf);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(etag == null ? "" : etag);
+            out.writeUTF(lastModified == null ? "" : lastModified);
+            out.writeInt(body.length);
+            out.write(body);
+            out.flush();
+
+            // Write-then-rename so a concurrent reader never sees half a file
+            Path tmp = Files.createTempFile(file.getParent(), id + "-", ".tmp");
+            Files.write(tmp, buf.toByteArray());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to write cache entry " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mark an entry as confirmed current (after a 304) without rewriting the body.
+     */
+    public void touch(String endpoint, int id) {
+        if (!enabled) return;
+        try {
+            Files.setLastModifiedTime(fileFor(endpoint, id), FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            System.err.println("Failed to touch cache entry " + endpoint + "/" + id + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fresh entries are served without asking upstream at all.
+     */
+    public boolean isFresh(CachedResponse cached) {
+        return cached.storedAt().plus(freshFor).isAfter(Instant.now());
+    }
+
+    public void recordHit(CachedResponse cached) {
+        hits.incrementAndGet();
+        bytesFromCache.addAndGet(cached.body().length);
+    }
+
+    public void recordRevalidated(CachedResponse cached) {
+        revalidated.incrementAndGet();
+        bytesFromCache.addAndGet(cached.body().length);
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.get(), revalidated.get(), misses.get(), bytesFromCache.get());
+    }
+
+    private Path fileFor(String endpoint, int id) {
+        return dir.resolve(endpoint).resolve(id + ".bin");
+    }
+
+    private static String emptyToNull(String s) {
+        return s.isEmpty() ? null : s;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.PL.service;
+
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps every player's ingested match history and only fetches what changed since the last run.
+ *
+ * Players seen for the first time get one element-summary call. After that, a player is only
+ * touched when their team has a finished fixture later than the last one we ingested for them,
+ * and those new gameweeks are pulled in bulk from event-live and appended.
+ */
+@Service
+public class IncrementalIngestionService {
+
+    private final FplClient fplClient;
+    private final FplLookupService lookupService;
+    private final FixtureIndexService fixtureIndexService;
+    private final ElementSummaryDecoder summaryDecoder;
+    private final EventLiveIngestionService eventLiveIngestion;
+
+    private final Map<Integer, PlayerHistory> histories = new ConcurrentHashMap<>();
+    // Only its single-flight refresh is used: every call runs (or joins) an ingest
+    private final SingleFlightCache<Map<Integer, List<FeatureBuilderService.MatchStats>>> run =
+            new SingleFlightCache<>("Incremental ingest", h -> true, h -> Instant.now(), last -> ingest());
+
+    /**
+     * History up to and including lastFixtureId; lastFixtureId is -1 when nothing has been ingested.
+     */
+    public record PlayerHistory(
+            List<FeatureBuilderService.MatchStats> matches,
+            int lastFixtureId,
+            int lastGameweek
+    ) {}
+
+    public IncrementalIngestionService(FplClient fplClient,
+                                       FplLookupService lookupService,
+                                       FixtureIndexService fixtureIndexService,
+                                       ElementSummaryDecoder summaryDecoder,
+                                       EventLiveIngestionService eventLiveIngestion) {
+        this.fplClient = fplClient;
+        this.lookupService = lookupService;
+        this.fixtureIndexService = fixtureIndexService;
+        this.summaryDecoder = summaryDecoder;
+        this.eventLiveIngestion = eventLiveIngestion;
+    }
+
+    /**
+     * Bring every player's history up to date and return playerId -> history. Concurrent callers
+     * share one run, so a player is never fetched twice for the same refresh.
+     */
+    public Mono<Map<Integer, List<FeatureBuilderService.MatchStats>>> refresh() {
+        return run.refresh();
+    }
+
+    private Mono<Map<Integer, List<FeatureBuilderService.MatchStats>>> ingest() {
+        return Mono.zip(lookupService.getSnapshot(), fixtureIndexService.getIndex())
+                .flatMap(tuple -> {
+                    BootstrapSnapshot snapshot = tuple.getT1();
+                    FixtureIndex fixtures = tuple.getT2();
+                    Map<Integer, FixtureIndex.Fixture> byId = fixtures.byId();
+
+                    Map<Integer, List<FixtureIndex.Fixture>> finishedByTeam = new HashMap<>();
+                    for (var f : fixtures.fixtures()) {
+                        if (!f.finished() || f.event() == null) continue;
+                        finishedByTeam.computeIfAbsent(f.teamH(), k -> new ArrayList<>()).add(f);
+                        finishedByTeam.computeIfAbsent(f.teamA(), k -> new ArrayList<>()).add(f);
+                    }
+
+                    List<Integer> unseen = new ArrayList<>();
+                    List<Integer> stale = new ArrayList<>();
+                    TreeSet<Integer> deltaGameweeks = new TreeSet<>();
+
+                    for (BootstrapSnapshot.Player p : snapshot.players()) {
+                        PlayerHistory h = histories.get(p.id());
+                        if (h == null) {
+                            unseen.add(p.id());
+                            continue;
+                        }
+                        boolean hasNew = false;
+                        for (var f : finishedByTeam.getOrDefault(p.teamId(), List.of())) {
+                            if (isAfter(f, h, byId)) {
+                                deltaGameweeks.add(f.event());
+                                hasNew = true;
+                            }
+                        }
+                        if (hasNew) stale.add(p.id());
+                    }
+
+                    int unchanged = snapshot.players().size() - unseen.size() - stale.size();
+                    System.out.println("Incremental ingest: " + unseen.size() + " new players, " + stale.size()
+                            + " with new matches (GWs " + deltaGameweeks + "), " + unchanged + " unchanged");
+
+                    Mono<Void> full = fetchFull(unseen, snapshot.table(), byId, finishedByTeam);
+                    Mono<Void> delta = stale.isEmpty()
+                            ? Mono.empty()
+                            : eventLiveIngestion.historiesFor(snapshot, fixtures, new ArrayList<>(deltaGameweeks))
+                                    .doOnNext(fresh -> appendDelta(stale, fresh, byId))
+                                    .then();
+
+                    return Mono.when(full, delta).then(Mono.fromCallable(this::currentHistories));
+                });
+    }
+
+    public Map<Integer, PlayerHistory> snapshotState() {
+        return Map.copyOf(histories);
+    }
+
+    /**
+     * Seed state, e.g. from a warm-start file, so the next refresh only fetches the delta.
+     */
+    public void restoreState(Map<Integer, PlayerHistory> state) {
+        histories.putAll(state);
+    }
+
+    private Mono<Void> fetchFull(List<Integer> playerIds,
+                                 PlayerTable playerTable,
+                                 Map<Integer, FixtureIndex.Fixture> byId,
+                                 Map<Integer, List<FixtureIndex.Fixture>> finishedByTeam) {
+        AtomicInteger failed = new AtomicInteger();
+        return Flux.fromIterable(playerIds)
+                .flatMap(playerId -> fplClient.getElementSummaryBytes(playerId)
+                                .map(summaryDecoder::decode)
+                                .doOnNext(decoded -> {
+                                    // Drop rows for fixtures still in progress; they'll come in as a delta once finished
+                                    List<FeatureBuilderService.MatchStats> finished = new ArrayList<>(decoded.size);
+                                    for (var m : decoded.toMatchStats()) {
+                                        var f = byId.get(m.fixtureId());
+                                        if (f != null && f.finished()) finished.add(m);
+                                    }
+                                    histories.put(playerId, toState(finished,
+                                            latestFinished(finishedByTeam.get(playerTable.teamId(playerId, PlayerTable.ABSENT)))));
+                                })
+                                .onErrorResume(e -> {
+                                    failed.incrementAndGet();
+                                    System.err.println("Incremental ingest: failed to fetch player " + playerId + ": " + e.getMessage());
+                                    return Mono.empty();
+                                }),
+                        fplClient.maxConcurrency())
+                .then(Mono.fromRunnable(() -> {
+                    if (failed.get() > 0) System.err.println("Incremental ingest: " + failed.get() + " players will be retried next run");
+                }));
+    }
+
+    private void appendDelta(List<Integer> stale,
+                             Map<Integer, List<FeatureBuilderService.MatchStats>> fresh,
+                             Map<Integer, FixtureIndex.Fixture> byId) {
+        for (int playerId : stale) {
+            PlayerHistory h = histories.get(playerId);
+            List<FeatureBuilderService.MatchStats> rows = fresh.getOrDefault(playerId, List.of());
+
+            List<FeatureBuilderService.MatchStats> merged = new ArrayList<>(h.matches().size() + rows.size());
+            merged.addAll(h.matches());
+            FixtureIndex.Fixture last = null;
+            for (var m : rows) {
+                var f = byId.get(m.fixtureId());
+                if (f == null || !isAfter(f, h, byId)) continue;
+                merged.add(m);
+                last = f;
+            }
+            if (last != null) {
+                histories.put(playerId, new PlayerHistory(List.copyOf(merged), last.id(), last.event()));
+            }
+        }
+    }
+
+    private static PlayerHistory toState(List<FeatureBuilderService.MatchStats> matches,
+                                         FixtureIndex.Fixture teamLatest) {
+        if (!matches.isEmpty()) {
+            var last = matches.get(matches.size() - 1);
+            return new PlayerHistory(List.copyOf(matches), last.fixtureId(), last.round() == null ? 0 : last.round());
+        }
+        // No appearances yet: start the delta after the team's latest finished fixture
+        if (teamLatest != null) {
+            return new PlayerHistory(List.of(), teamLatest.id(), teamLatest.event());
+        }
+        return new PlayerHistory(List.of(), -1, 0);
+    }
+
+    private static FixtureIndex.Fixture latestFinished(List<FixtureIndex.Fixture> teamFixtures) {
+        FixtureIndex.Fixture latest = null;
+        if (teamFixtures == null) return null;
+        for (var f : teamFixtures) {
+            if (latest == null || f.event() > latest.event()
+                    || (f.event().equals(latest.event()) && f.order() > latest.order())) {
+                latest = f;
+            }
+        }
+        return latest;
+    }
+
+    private static boolean isAfter(FixtureIndex.Fixture f,
+                                   PlayerHistory h,
+                                   Map<Integer, FixtureIndex.Fixture> byId) {
+        if (f.event() > h.lastGameweek()) return true;
+        if (f.event() < h.lastGameweek()) return false;
+        var last = byId.get(h.lastFixtureId());
+        return last != null && f.order() > last.order();
+    }
+
+    private Map<Integer, List<FeatureBuilderService.MatchStats>> currentHistories() {
+        Map<Integer, List<FeatureBuilderService.MatchStats>> out = new HashMap<>(histories.size() * 2);
+        histories.forEach((id, h) -> out.put(id, h.matches()));
+        return out;
+    }
+}
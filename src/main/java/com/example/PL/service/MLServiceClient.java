@@ -2,12 +2,18 @@ package com.example.PL.service;
 
 import com.example.PL.dto.*;
 import com.example.PL.dto.*;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import tools.jackson.databind.ObjectMapper;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Client to communicate with the Python ML microservice
@@ -15,10 +21,14 @@ import java.util.List;
 @Service
 public class MLServiceClient {
 
+    private static final int ROWS_PER_CHUNK = 500;
+
     private final WebClient mlServiceWebClient;
+    private final ObjectMapper objectMapper;
 
-    public MLServiceClient(WebClient mlServiceWebClient) {
+    public MLServiceClient(WebClient mlServiceWebClient, ObjectMapper objectMapper) {
         this.mlServiceWebClient = mlServiceWebClient;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -51,6 +61,42 @@ public class MLServiceClient {
                 .doOnError(e -> System.err.println("Training failed: " + e.getMessage()));
     }
 
+    /**
+     * Same request body as trainModel(List), written out as rows arrive so the training set
+     * is never collected in memory. Errors before sending anything if there are no rows.
+     */
+    public Mono<TrainResponse> trainModel(Flux<PlayerFeatureRowDto> trainingRows) {
+        AtomicLong sent = new AtomicLong();
+        DefaultDataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+
+        Flux<PlayerFeatureRowDto> rows = trainingRows.switchOnFirst((first, all) -> first.hasValue()
+                ? all
+                : Flux.error(new RuntimeException("No training data available")));
+
+        Flux<DataBuffer> body = Flux.concat(
+                Flux.just("{\"rows\":["),
+                rows.buffer(ROWS_PER_CHUNK).map(chunk -> {
+                    StringBuilder sb = new StringBuilder(chunk.size() * 512);
+                    for (PlayerFeatureRowDto row : chunk) {
+                        if (sent.getAndIncrement() > 0) sb.append(',');
+                        sb.append(objectMapper.writeValueAsString(row));
+                    }
+                    return sb.toString();
+                }),
+                Flux.just("]}")
+        ).map(s -> buffers.wrap(s.getBytes(StandardCharsets.UTF_8)));
+
+        return mlServiceWebClient
+                .post()
+                .uri("/train")
+                .body(BodyInserters.fromDataBuffers(body))
+                .retrieve()
+                .bodyToMono(TrainResponse.class)
+                .doOnSubscribe(s -> System.out.println("Streaming rows for training..."))
+                .doOnSuccess(response -> System.out.println("Training completed on " + sent.get() + " rows: " + response.message()))
+                .doOnError(e -> System.err.println("Training failed: " + e.getMessage()));
+    }
+
     /**
      * Get predictions for the provided feature rows
      */
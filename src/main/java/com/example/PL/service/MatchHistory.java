@@ -0,0 +1,328 @@
+package com.example.PL.service;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * One player's matches, oldest first, as one primitive column per stat rather than a list of
+ * MatchStats records. Which rows have a round and which were at home are bitmaps, and custom
+ * points live alongside as one more column once the history has been scored for a position.
+ *
+ * Columns are exposed as public final arrays for the feature code to read in place; nothing
+ * writes to them after build(). matchAt and asList give MatchStats for code that still wants them.
+ */
+public final class MatchHistory {
+
+    public static final MatchHistory EMPTY = new Builder(0).build();
+
+    public final int size;
+    public final int[] fixtureId;
+    public final int[] round;
+    public final int[] minutes;
+    public final int[] goals;
+    public final int[] assists;
+    public final int[] cleanSheets;
+    public final int[] saves;
+    public final int[] bonus;
+    public final int[] goalsConceded;
+    public final int[] cbi;
+    public final int[] yellow;
+    public final int[] red;
+    public final int[] ownGoals;
+    public final int[] penaltiesSaved;
+    public final int[] penaltiesMissed;
+    public final int[] opponentTeamId;
+    /** Custom points per match; null until scored (see FantasyScoringService.score). */
+    public final int[] customPoints;
+
+    private final long[] hasRound;
+    private final long[] home;
+
+    private MatchHistory(Builder b) {
+        this.size = b.size;
+        this.fixtureId = Arrays.copyOf(b.fixtureId, b.size);
+        this.round = Arrays.copyOf(b.round, b.size);
+        this.minutes = Arrays.copyOf(b.minutes, b.size);
+        this.goals = Arrays.copyOf(b.goals, b.size);
+        this.assists = Arrays.copyOf(b.assists, b.size);
+        this.cleanSheets = Arrays.copyOf(b.cleanSheets, b.size);
+        this.saves = Arrays.copyOf(b.saves, b.size);
+        this.bonus = Arrays.copyOf(b.bonus, b.size);
+        this.goalsConceded = Arrays.copyOf(b.goalsConceded, b.size);
+        this.cbi = Arrays.copyOf(b.cbi, b.size);
+        this.yellow = Arrays.copyOf(b.yellow, b.size);
+        this.red = Arrays.copyOf(b.red, b.size);
+        this.ownGoals = Arrays.copyOf(b.ownGoals, b.size);
+        this.penaltiesSaved = Arrays.copyOf(b.penaltiesSaved, b.size);
+        this.penaltiesMissed = Arrays.copyOf(b.penaltiesMissed, b.size);
+        this.opponentTeamId = Arrays.copyOf(b.opponentTeamId, b.size);
+        this.hasRound = Arrays.copyOf(b.hasRound, words(b.size));
+        this.home = Arrays.copyOf(b.home, words(b.size));
+        this.customPoints = null;
+    }
+
+    private MatchHistory(MatchHistory h, int[] customPoints) {
+        this.size = h.size;
+        this.fixtureId = h.fixtureId;
+        this.round = h.round;
+        this.minutes = h.minutes;
+        this.goals = h.goals;
+        this.assists = h.assists;
+        this.cleanSheets = h.cleanSheets;
+        this.saves = h.saves;
+        this.bonus = h.bonus;
+        this.goalsConceded = h.goalsConceded;
+        this.cbi = h.cbi;
+        this.yellow = h.yellow;
+        this.red = h.red;
+        this.ownGoals = h.ownGoals;
+        this.penaltiesSaved = h.penaltiesSaved;
+        this.penaltiesMissed = h.penaltiesMissed;
+        this.opponentTeamId = h.opponentTeamId;
+        this.hasRound = h.hasRound;
+        this.home = h.home;
+        this.customPoints = customPoints;
+    }
+
+    public static MatchHistory of(List<FeatureBuilderService.MatchStats> matches) {
+        Builder b = new Builder(matches.size());
+        for (FeatureBuilderService.MatchStats m : matches) b.add(m);
+        return b.build();
+    }
+
+    /**
+     * Same columns (shared, not copied) with customPoints set; points must hold size entries.
+     */
+    public MatchHistory withCustomPoints(int[] points) {
+        if (points.length != size) throw new IllegalArgumentException("expected " + size + " custom points, got " + points.length);
+        return new MatchHistory(this, points);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean hasRound(int i) {
+        return (hasRound[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public Integer round(int i) {
+        return hasRound(i) ? round[i] : null;
+    }
+
+    public boolean wasHome(int i) {
+        return (home[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * A hash of every column of rows [0, to) (custom points aside), the same from run to run, so
+     * something built from those rows can tell later whether any of them has changed.
+     */
+    public long hash(int to) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < to; i++) {
+            h = mix(h, fixtureId[i]);
+            h = mix(h, hasRound(i) ? round[i] : Integer.MIN_VALUE);
+            h = mix(h, minutes[i]);
+            h = mix(h, goals[i]);
+            h = mix(h, assists[i]);
+            h = mix(h, cleanSheets[i]);
+            h = mix(h, saves[i]);
+            h = mix(h, bonus[i]);
+            h = mix(h, goalsConceded[i]);
+            h = mix(h, cbi[i]);
+            h = mix(h, yellow[i]);
+            h = mix(h, red[i]);
+            h = mix(h, ownGoals[i]);
+            h = mix(h, penaltiesSaved[i]);
+            h = mix(h, penaltiesMissed[i]);
+            h = mix(h, opponentTeamId[i]);
+            h = mix(h, wasHome(i) ? 1 : 0);
+        }
+        return h;
+    }
+
+    private static long mix(long h, int v) {
+        return (h ^ v) * 0x100000001b3L;
+    }
+
+    public FeatureBuilderService.MatchStats matchAt(int i) {
+        return new FeatureBuilderService.MatchStats(
+                fixtureId[i],
+                round(i),
+                minutes[i],
+                goals[i],
+                assists[i],
+                cleanSheets[i],
+                saves[i],
+                bonus[i],
+                goalsConceded[i],
+                cbi[i],
+                yellow[i],
+                red[i],
+                ownGoals[i],
+                penaltiesSaved[i],
+                penaltiesMissed[i],
+                opponentTeamId[i],
+                wasHome(i)
+        );
+    }
+
+    /**
+     * Read-only List&lt;MatchStats&gt; view; each get builds the record from the columns.
+     */
+    public List<FeatureBuilderService.MatchStats> asList() {
+        return new View();
+    }
+
+    private static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    private final class View extends AbstractList<FeatureBuilderService.MatchStats> implements RandomAccess {
+        @Override
+        public FeatureBuilderService.MatchStats get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            return matchAt(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Growable columns for parsers: start a row with next(), fill it through the public arrays at
+     * index size, then commit it with done(). A season is 38 rows so the first allocation almost always fits.
+     */
+    public static final class Builder {
+        public int size;
+        public int[] fixtureId;
+        public int[] round;
+        public int[] minutes;
+        public int[] goals;
+        public int[] assists;
+        public int[] cleanSheets;
+        public int[] saves;
+        public int[] bonus;
+        public int[] goalsConceded;
+        public int[] cbi;
+        public int[] yellow;
+        public int[] red;
+        public int[] ownGoals;
+        public int[] penaltiesSaved;
+        public int[] penaltiesMissed;
+        public int[] opponentTeamId;
+        private long[] hasRound;
+        private long[] home;
+
+        public Builder() {
+            this(40);
+        }
+
+        public Builder(int capacity) {
+            int n = Math.max(1, capacity);
+            fixtureId = new int[n];
+            round = new int[n];
+            minutes = new int[n];
+            goals = new int[n];
+            assists = new int[n];
+            cleanSheets = new int[n];
+            saves = new int[n];
+            bonus = new int[n];
+            goalsConceded = new int[n];
+            cbi = new int[n];
+            yellow = new int[n];
+            red = new int[n];
+            ownGoals = new int[n];
+            penaltiesSaved = new int[n];
+            penaltiesMissed = new int[n];
+            opponentTeamId = new int[n];
+            hasRound = new long[words(n)];
+            home = new long[words(n)];
+        }
+
+        /**
+         * Make room for row size and return its index; its columns start at zero, with no round and away.
+         */
+        public int next() {
+            if (size == fixtureId.length) grow();
+            return size;
+        }
+
+        public void done() {
+            size++;
+        }
+
+        public void setRound(int i, Integer value) {
+            if (value == null) {
+                round[i] = 0;
+                hasRound[i >>> 6] &= ~(1L << i);
+            } else {
+                round[i] = value;
+                hasRound[i >>> 6] |= 1L << i;
+            }
+        }
+
+        public void setHome(int i, boolean wasHome) {
+            if (wasHome) home[i >>> 6] |= 1L << i;
+            else home[i >>> 6] &= ~(1L << i);
+        }
+
+        public Builder add(FeatureBuilderService.MatchStats m) {
+            int i = next();
+            fixtureId[i] = m.fixtureId();
+            setRound(i, m.round());
+            minutes[i] = m.minutes();
+            goals[i] = m.goals();
+            assists[i] = m.assists();
+            cleanSheets[i] = m.cleanSheets();
+            saves[i] = m.saves();
+            bonus[i] = m.bonus();
+            goalsConceded[i] = m.goalsConceded();
+            cbi[i] = m.cbi();
+            yellow[i] = m.yellow();
+            red[i] = m.red();
+            ownGoals[i] = m.ownGoals();
+            penaltiesSaved[i] = m.penaltiesSaved();
+            penaltiesMissed[i] = m.penaltiesMissed();
+            opponentTeamId[i] = m.opponentTeamId();
+            setHome(i, m.wasHome());
+            done();
+            return this;
+        }
+
+        public MatchHistory build() {
+            return new MatchHistory(this);
+        }
+
+        private void grow() {
+            int n = fixtureId.length * 2;
+            fixtureId = Arrays.copyOf(fixtureId, n);
+            round = Arrays.copyOf(round, n);
+            minutes = Arrays.copyOf(minutes, n);
+            goals = Arrays.copyOf(goals, n);
+            assists = Arrays.copyOf(assists, n);
+            cleanSheets = Arrays.copyOf(cleanSheets, n);
+            saves = Arrays.copyOf(saves, n);
+            bonus = Arrays.copyOf(bonus, n);
+            goalsConceded = Arrays.copyOf(goalsConceded, n);
+            cbi = Arrays.copyOf(cbi, n);
+            yellow = Arrays.copyOf(yellow, n);
+            red = Arrays.copyOf(red, n);
+            ownGoals = Arrays.copyOf(ownGoals, n);
+            penaltiesSaved = Arrays.copyOf(penaltiesSaved, n);
+            penaltiesMissed = Arrays.copyOf(penaltiesMissed, n);
+            opponentTeamId = Arrays.copyOf(opponentTeamId, n);
+            hasRound = Arrays.copyOf(hasRound, words(n));
+            home = Arrays.copyOf(home, words(n));
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package com.example.PL.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Persistent columnar store of per-player match rows, one directory per season.
+ *
+ * Every stat is its own fixed-width int32 column file, so row r of any stat is at byte r * 4,
+ * and columns are read through memory maps. The maps cover a capacity that grows geometrically
+ * ahead of the rows, so an append writes into the already-mapped range and only remaps when it
+ * outgrows it. index.bin lists (playerId, firstRow, rowCount) extents and is the source of truth:
+ * column bytes past the last indexed row are ignored and trimmed on open. Each append writes one
+ * extent per player after the existing rows, so nothing already on disk is rewritten. A season
+ * loaded in one bulk append keeps each player's rows contiguous.
+ *
+ * A stored row that upstream later corrects (same fixture id, different stats) is not patched in
+ * place: the player's whole corrected history is appended as one superseding extent, stored with a
+ * negative rowCount, and the player's earlier extents are ignored from then on. Once those dead
+ * rows pass fpl.history-store.compact-dead-fraction of a partition, it is compacted: the live
+ * extents are written to *.compact files, a compact.done marker commits them, and they are
+ * renamed over the originals. A partition opened with the marker present finishes the renames;
+ * without it, leftover *.compact files are from an interrupted compaction and are deleted.
+ */
+@Service
+public class MatchHistoryStore {
+
+    public enum Column {
+        FIXTURE_ID, ROUND, MINUTES, GOALS, ASSISTS, CLEAN_SHEETS, SAVES, BONUS, GOALS_CONCEDED, CBI,
+        YELLOW, RED, OWN_GOALS, PENALTIES_SAVED, PENALTIES_MISSED, OPPONENT_TEAM_ID, WAS_HOME
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+    private static final int WIDTH = 4;
+    private static final int EXTENT_BYTES = 12;
+    private static final int NO_ROUND = -1;
+    private static final int MIN_CAPACITY_ROWS = 1 << 12;
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final String COMPACT_DONE = "compact.done";
+
+    private final Path root;
+    private final double compactDeadFraction;
+    private final Map<String, Season> seasons = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, Integer>> supersedeListeners = new CopyOnWriteArrayList<>();
+
+    public MatchHistoryStore(@Value("${fpl.history-store.dir:.fpl-cache/history}") String dir,
+                             @Value("${fpl.history-store.compact-dead-fraction:0.25}") double compactDeadFraction) {
+        this.root = Path.of(dir);
+        this.compactDeadFraction = compactDeadFraction;
+    }
+
+    /**
+     * Append every row not already stored for its player (matched on fixture id), keeping list order.
+     * If a stored row has changed upstream, the player's full history is rewritten as a superseding
+     * extent instead. Returns how many rows were written.
+     */
+    public int append(String season, Map<Integer, List<FeatureBuilderService.MatchStats>> histories) {
+        return season(season).append(histories, playerId -> supersedeListeners.forEach(l -> l.accept(season, playerId)));
+    }
+
+    /**
+     * Called with (season, playerId) after an append superseded that player's rows with a corrected
+     * history, so state derived from the old rows can be dropped.
+     */
+    public void onSuperseded(BiConsumer<String, Integer> listener) {
+        supersedeListeners.add(listener);
+    }
+
+    /**
+     * A player's rows in the order they were appended; empty if we have none.
+     */
+    public Slice slice(String season, int playerId) {
+        return season(season).slice(playerId);
+    }
+
+    public int rowCount(String season) {
+        return season(season).rowCount;
+    }
+
+    /**
+     * Directory holding a season's partition, for callers that keep per-season metadata beside the columns.
+     */
+    public Path partition(String season) {
+        return root.resolve(season);
+    }
+
+    /**
+     * Every season partition on disk, oldest first ("2023-24" sorts before "2024-25").
+     */
+    public List<String> seasons() {
+        if (!Files.isDirectory(root)) return List.of();
+        try (var dirs = Files.list(root)) {
+            return dirs.filter(Files::isDirectory)
+                    .map(d -> d.getFileName().toString())
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list match history store " + root, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        seasons.values().forEach(Season::close);
+    }
+
+    private Season season(String name) {
+        return seasons.computeIfAbsent(name, n -> new Season(root.resolve(n), compactDeadFraction));
+    }
+
+    /**
+     * Read-only view over one player's rows. Values are read straight from the mapped columns.
+     */
+    public static final class Slice {
+        private static final Slice EMPTY = new Slice(null, new int[0]);
+
+        private final ByteBuffer[] columns;
+        private final int[] rows;
+
+        private Slice(ByteBuffer[] columns, int[] rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        public int size() {
+            return rows.length;
+        }
+
+        public int get(Column column, int i) {
+            return columns[column.ordinal()].getInt(rows[i] * WIDTH);
+        }
+
+        /**
+         * Copy one column into dst (which must hold size() values) and return it.
+         */
+        public int[] column(Column column, int[] dst) {
+            for (int i = 0; i < rows.length; i++) dst[i] = get(column, i);
+            return dst;
+        }
+
+        public Integer round(int i) {
+            int r = get(Column.ROUND, i);
+            return r == NO_ROUND ? null : r;
+        }
+
+        public boolean wasHome(int i) {
+            return get(Column.WAS_HOME, i) != 0;
+        }
+
+        public FeatureBuilderService.MatchStats matchAt(int i) {
+            return new FeatureBuilderService.MatchStats(
+                    get(Column.FIXTURE_ID, i),
+                    round(i),
+                    get(Column.MINUTES, i),
+                    get(Column.GOALS, i),
+                    get(Column.ASSISTS, i),
+                    get(Column.CLEAN_SHEETS, i),
+                    get(Column.SAVES, i),
+                    get(Column.BONUS, i),
+                    get(Column.GOALS_CONCEDED, i),
+                    get(Column.CBI, i),
+                    get(Column.YELLOW, i),
+                    get(Column.RED, i),
+                    get(Column.OWN_GOALS, i),
+                    get(Column.PENALTIES_SAVED, i),
+                    get(Column.PENALTIES_MISSED, i),
+                    get(Column.OPPONENT_TEAM_ID, i),
+                    wasHome(i)
+            );
+        }
+
+        /**
+         * Copy the rows out of the mapped columns into a MatchHistory.
+         */
+        public MatchHistory toHistory() {
+            MatchHistory.Builder b = new MatchHistory.Builder(rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                b.next();
+                b.fixtureId[i] = get(Column.FIXTURE_ID, i);
+                b.setRound(i, round(i));
+                b.minutes[i] = get(Column.MINUTES, i);
+                b.goals[i] = get(Column.GOALS, i);
+                b.assists[i] = get(Column.ASSISTS, i);
+                b.cleanSheets[i] = get(Column.CLEAN_SHEETS, i);
+                b.saves[i] = get(Column.SAVES, i);
+                b.bonus[i] = get(Column.BONUS, i);
+                b.goalsConceded[i] = get(Column.GOALS_CONCEDED, i);
+                b.cbi[i] = get(Column.CBI, i);
+                b.yellow[i] = get(Column.YELLOW, i);
+                b.red[i] = get(Column.RED, i);
+                b.ownGoals[i] = get(Column.OWN_GOALS, i);
+                b.penaltiesSaved[i] = get(Column.PENALTIES_SAVED, i);
+                b.penaltiesMissed[i] = get(Column.PENALTIES_MISSED, i);
+                b.opponentTeamId[i] = get(Column.OPPONENT_TEAM_ID, i);
+                b.setHome(i, wasHome(i));
+                b.done();
+            }
+            return b.build();
+        }
+
+        public List<FeatureBuilderService.MatchStats> toMatchStats() {
+            List<FeatureBuilderService.MatchStats> out = new ArrayList<>(rows.length);
+            for (int i = 0; i < rows.length; i++) out.add(matchAt(i));
+            return out;
+        }
+    }
+
+    private static final class Season {
+        private final Path dir;
+        private final double compactDeadFraction;
+        private final FileChannel[] channels = new FileChannel[COLUMNS.length];
+        private FileChannel index;
+
+        // playerId -> {firstRow, rowCount, firstRow, rowCount, ...}
+        private final Map<Integer, int[]> extents = new HashMap<>();
+        // playerId -> fixtureId -> row, for the rows in the player's live extents
+        private final Map<Integer, Map<Integer, Integer>> storedRows = new HashMap<>();
+        private volatile ByteBuffer[] maps;
+        private volatile int rowCount;
+        // Rows in live extents; rowCount - liveRows rows are dead (superseded)
+        private int liveRows;
+        // Rows the current maps cover, at least rowCount
+        private int capacityRows;
+
+        Season(Path dir, double compactDeadFraction) {
+            this.dir = dir;
+            this.compactDeadFraction = compactDeadFraction;
+            try {
+                Files.createDirectories(dir);
+                recoverCompaction();
+                openChannels();
+                load();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open match history store " + dir, e);
+            }
+        }
+
+        private void openChannels() throws IOException {
+            for (Column c : COLUMNS) {
+                channels[c.ordinal()] = FileChannel.open(columnFile(c),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            index = FileChannel.open(indexFile(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        private Path columnFile(Column c) {
+            return dir.resolve(c.name().toLowerCase() + ".col");
+        }
+
+        private Path indexFile() {
+            return dir.resolve("index.bin");
+        }
+
+        private static Path compactFile(Path file) {
+            return file.resolveSibling(file.getFileName() + COMPACT_SUFFIX);
+        }
+
+        private void load() throws IOException {
+            // Columns are written before the index, so rows past the last indexed extent are
+            // from an interrupted append: trim them and any partial extent record.
+            long extentBytes = index.size() - index.size() % EXTENT_BYTES;
+            long shortestColumn = Long.MAX_VALUE;
+            for (FileChannel ch : channels) shortestColumn = Math.min(shortestColumn, ch.size() / WIDTH);
+
+            ByteBuffer buf = ByteBuffer.allocate((int) extentBytes);
+            while (buf.hasRemaining() && index.read(buf, buf.position()) > 0) {
+                // keep reading
+            }
+            buf.flip();
+
+            int rows = 0;
+            long validBytes = 0;
+            while (buf.remaining() >= EXTENT_BYTES) {
+                int playerId = buf.getInt();
+                int first = buf.getInt();
+                int count = buf.getInt();
+                boolean supersedes = count < 0;
+                count = Math.abs(count);
+                if (first + (long) count > shortestColumn) break;
+                if (supersedes) extents.remove(playerId);
+                addExtent(playerId, first, count);
+                rows = Math.max(rows, first + count);
+                validBytes += EXTENT_BYTES;
+            }
+
+            index.truncate(validBytes);
+            for (FileChannel ch : channels) ch.truncate((long) rows * WIDTH);
+            rowCount = rows;
+            liveRows = 0;
+            for (int[] ext : extents.values()) liveRows += live(ext);
+            remap(rows);
+
+            extents.keySet().forEach(this::indexRows);
+            if (rows > 0) System.out.println("Match history store " + dir + ": " + rows + " rows, " + extents.size() + " players");
+        }
+
+        /**
+         * Rows to write for one player; supersedes means they replace every earlier extent.
+         */
+        private record Pending(List<FeatureBuilderService.MatchStats> rows, boolean supersedes) {}
+
+        synchronized int append(Map<Integer, List<FeatureBuilderService.MatchStats>> histories, IntConsumer superseded) {
+            Map<Integer, Pending> fresh = new TreeMap<>();
+            int total = 0;
+            for (Map.Entry<Integer, List<FeatureBuilderService.MatchStats>> e : histories.entrySet()) {
+                Map<Integer, Integer> stored = storedRows.getOrDefault(e.getKey(), Map.of());
+                List<FeatureBuilderService.MatchStats> added = new ArrayList<>();
+                Map<Integer, FeatureBuilderService.MatchStats> corrected = new HashMap<>();
+                for (var m : e.getValue()) {
+                    Integer row = stored.get(m.fixtureId());
+                    if (row == null) added.add(m);
+                    else if (!rowAt(row).equals(m)) corrected.put(m.fixtureId(), m);
+                }
+
+                Pending pending;
+                if (!corrected.isEmpty()) {
+                    List<FeatureBuilderService.MatchStats> rows = new ArrayList<>();
+                    for (var m : slice(e.getKey()).toMatchStats()) rows.add(corrected.getOrDefault(m.fixtureId(), m));
+                    rows.addAll(added);
+                    System.out.println("Match history store " + dir + ": player " + e.getKey() + " has "
+                            + corrected.size() + " corrected row(s) (fixtures " + corrected.keySet()
+                            + "), rewriting " + rows.size() + " rows");
+                    pending = new Pending(rows, true);
+                } else if (!added.isEmpty()) {
+                    pending = new Pending(added, false);
+                } else {
+                    continue;
+                }
+                fresh.put(e.getKey(), pending);
+                total += pending.rows().size();
+            }
+            if (total == 0) return 0;
+
+            try {
+                ByteBuffer[] columnBufs = new ByteBuffer[COLUMNS.length];
+                for (int c = 0; c < COLUMNS.length; c++) columnBufs[c] = ByteBuffer.allocate(total * WIDTH);
+                ByteBuffer indexBuf = ByteBuffer.allocate(fresh.size() * EXTENT_BYTES);
+
+                int row = rowCount;
+                for (Map.Entry<Integer, Pending> e : fresh.entrySet()) {
+                    List<FeatureBuilderService.MatchStats> rows = e.getValue().rows();
+                    indexBuf.putInt(e.getKey()).putInt(row).putInt(e.getValue().supersedes() ? -rows.size() : rows.size());
+                    for (var m : rows) {
+                        put(columnBufs, m);
+                        row++;
+                    }
+                }
+
+                long offset = (long) rowCount * WIDTH;
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    ByteBuffer b = columnBufs[c].flip();
+                    long pos = offset;
+                    while (b.hasRemaining()) pos += channels[c].write(b, pos);
+                    channels[c].force(false);
+                }
+                indexBuf.flip();
+                long pos = index.size();
+                while (indexBuf.hasRemaining()) pos += index.write(indexBuf, pos);
+                index.force(false);
+
+                int first = rowCount;
+                for (Map.Entry<Integer, Pending> e : fresh.entrySet()) {
+                    int count = e.getValue().rows().size();
+                    if (e.getValue().supersedes()) {
+                        int[] old = extents.remove(e.getKey());
+                        if (old != null) liveRows -= live(old);
+                    }
+                    addExtent(e.getKey(), first, count);
+                    liveRows += count;
+                    first += count;
+                }
+                // The new rows are already visible through maps that cover them; only outgrowing them remaps
+                if (first > capacityRows) remap(first);
+                rowCount = first;
+                fresh.keySet().forEach(this::indexRows);
+                fresh.forEach((playerId, p) -> {
+                    if (p.supersedes()) superseded.accept(playerId);
+                });
+
+                int dead = rowCount - liveRows;
+                if (dead > 0 && dead >= compactDeadFraction * rowCount) compact();
+                return total;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to append to match history store " + dir, e);
+            }
+        }
+
+        synchronized Slice slice(int playerId) {
+            int[] ext = extents.get(playerId);
+            if (ext == null) return Slice.EMPTY;
+
+            int[] rows = new int[live(ext)];
+            int i = 0;
+            for (int e = 0; e < ext.length; e += 2) {
+                for (int r = ext[e]; r < ext[e] + ext[e + 1]; r++) rows[i++] = r;
+            }
+
+            ByteBuffer[] views = new ByteBuffer[COLUMNS.length];
+            for (int c = 0; c < COLUMNS.length; c++) views[c] = maps[c].duplicate();
+            return new Slice(views, rows);
+        }
+
+        /**
+         * Rebuild the fixture id to row lookup for one player's live extents.
+         */
+        private void indexRows(int playerId) {
+            ByteBuffer fixtureIds = maps[Column.FIXTURE_ID.ordinal()];
+            Map<Integer, Integer> rows = new HashMap<>();
+            int[] ext = extents.get(playerId);
+            for (int e = 0; e < ext.length; e += 2) {
+                for (int r = ext[e]; r < ext[e] + ext[e + 1]; r++) rows.put(fixtureIds.getInt(r * WIDTH), r);
+            }
+            storedRows.put(playerId, rows);
+        }
+
+        /**
+         * Rewrite the partition with only the live extents, one per player in player order. See
+         * the class doc for how the rewrite is committed.
+         */
+        private void compact() throws IOException {
+            int before = rowCount;
+            ByteBuffer[] src = maps;
+            List<Integer> players = new ArrayList<>(new TreeMap<>(extents).keySet());
+
+            for (Column c : COLUMNS) {
+                ByteBuffer buf = ByteBuffer.allocate(liveRows * WIDTH);
+                ByteBuffer col = src[c.ordinal()];
+                for (int playerId : players) {
+                    int[] ext = extents.get(playerId);
+                    for (int e = 0; e < ext.length; e += 2) {
+                        for (int r = ext[e]; r < ext[e] + ext[e + 1]; r++) buf.putInt(col.getInt(r * WIDTH));
+                    }
+                }
+                write(compactFile(columnFile(c)), buf.flip());
+            }
+
+            Map<Integer, int[]> compacted = new HashMap<>();
+            ByteBuffer indexBuf = ByteBuffer.allocate(players.size() * EXTENT_BYTES);
+            int row = 0;
+            for (int playerId : players) {
+                int count = live(extents.get(playerId));
+                indexBuf.putInt(playerId).putInt(row).putInt(count);
+                compacted.put(playerId, new int[]{row, count});
+                row += count;
+            }
+            write(compactFile(indexFile()), indexBuf.flip());
+
+            Files.createFile(dir.resolve(COMPACT_DONE));
+            for (FileChannel ch : channels) ch.close();
+            index.close();
+            recoverCompaction();
+            openChannels();
+
+            extents.clear();
+            extents.putAll(compacted);
+            rowCount = row;
+            liveRows = row;
+            remap(row);
+            storedRows.clear();
+            extents.keySet().forEach(this::indexRows);
+            System.out.println("Match history store " + dir + ": compacted " + before + " rows to " + row);
+        }
+
+        /**
+         * Finish a committed compaction (marker present) or discard an interrupted one.
+         */
+        private void recoverCompaction() throws IOException {
+            Path done = dir.resolve(COMPACT_DONE);
+            boolean committed = Files.exists(done);
+            List<Path> files = new ArrayList<>();
+            for (Column c : COLUMNS) files.add(columnFile(c));
+            files.add(indexFile());
+            for (Path file : files) {
+                Path compacted = compactFile(file);
+                if (!Files.exists(compacted)) continue;
+                if (committed) Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                else Files.delete(compacted);
+            }
+            Files.deleteIfExists(done);
+        }
+
+        private static void write(Path file, ByteBuffer buf) throws IOException {
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                long pos = 0;
+                while (buf.hasRemaining()) pos += out.write(buf, pos);
+                out.force(false);
+            }
+        }
+
+        private static int live(int[] ext) {
+            int n = 0;
+            for (int e = 1; e < ext.length; e += 2) n += ext[e];
+            return n;
+        }
+
+        private FeatureBuilderService.MatchStats rowAt(int row) {
+            return new Slice(maps, new int[]{row}).matchAt(0);
+        }
+
+        private void addExtent(int playerId, int first, int count) {
+            int[] ext = extents.get(playerId);
+            if (ext == null) {
+                extents.put(playerId, new int[]{first, count});
+                return;
+            }
+            // Extend the last extent in place when the new rows follow straight on
+            if (ext[ext.length - 2] + ext[ext.length - 1] == first) {
+                ext[ext.length - 1] += count;
+                return;
+            }
+            int[] grown = Arrays.copyOf(ext, ext.length + 2);
+            grown[ext.length] = first;
+            grown[ext.length + 1] = count;
+            extents.put(playerId, grown);
+        }
+
+        /**
+         * Map every column with room for at least rows rows, doubling the capacity so a run of
+         * appends remaps O(log n) times. Mapping read-write past the end grows the file with zeros,
+         * which the index never points at.
+         */
+        private void remap(int rows) throws IOException {
+            int capacity = Math.max(MIN_CAPACITY_ROWS, Math.max(rows, capacityRows * 2));
+            ByteBuffer[] fresh = new ByteBuffer[COLUMNS.length];
+            for (int c = 0; c < COLUMNS.length; c++) {
+                MappedByteBuffer m = channels[c].map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * WIDTH);
+                fresh[c] = m;
+            }
+            capacityRows = capacity;
+            maps = fresh;
+        }
+
+        private static void put(ByteBuffer[] cols, FeatureBuilderService.MatchStats m) {
+            cols[Column.FIXTURE_ID.ordinal()].putInt(m.fixtureId());
+            cols[Column.ROUND.ordinal()].putInt(m.round() == null ? NO_ROUND : m.round());
+            cols[Column.MINUTES.ordinal()].putInt(m.minutes());
+            cols[Column.GOALS.ordinal()].putInt(m.goals());
+            cols[Column.ASSISTS.ordinal()].putInt(m.assists());
+            cols[Column.CLEAN_SHEETS.ordinal()].putInt(m.cleanSheets());
+            cols[Column.SAVES.ordinal()].putInt(m.saves());
+            cols[Column.BONUS.ordinal()].putInt(m.bonus());
+            cols[Column.GOALS_CONCEDED.ordinal()].putInt(m.goalsConceded());
+            cols[Column.CBI.ordinal()].putInt(m.cbi());
+            cols[Column.YELLOW.ordinal()].putInt(m.yellow());
+            cols[Column.RED.ordinal()].putInt(m.red());
+            cols[Column.OWN_GOALS.ordinal()].putInt(m.ownGoals());
+            cols[Column.PENALTIES_SAVED.ordinal()].putInt(m.penaltiesSaved());
+            cols[Column.PENALTIES_MISSED.ordinal()].putInt(m.penaltiesMissed());
+            cols[Column.OPPONENT_TEAM_ID.ordinal()].putInt(m.opponentTeamId());
+            cols[Column.WAS_HOME.ordinal()].putInt(m.wasHome() ? 1 : 0);
+        }
+
+        void close() {
+            try {
+                for (FileChannel ch : channels) ch.close();
+                index.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close match history store " + dir + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.PL.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk load and streaming read of the match_stats table (see MatchStat).
+ *
+ * Loads COPY CSV into a temp table and upsert from there in one statement, so a season of ~25k
+ * rows is one round trip plus one INSERT ... ON CONFLICT; only rows whose stats actually changed
+ * (late corrections) are rewritten. Reads go through a server-side cursor one player at a time.
+ */
+@Service
+public class MatchStatsTable {
+
+    private static final String STAT_COLUMNS = "round, minutes, goals, assists, clean_sheets, saves, bonus, " +
+            "goals_conceded, cbi, yellow, red, own_goals, penalties_saved, penalties_missed, opponent_team_id, was_home";
+    private static final String COLUMNS = "season, player_id, fixture_id, " + STAT_COLUMNS;
+
+    private static final int COPY_CHUNK = 64 * 1024;
+    private static final int FETCH_SIZE = 2000;
+
+    private final DataSource dataSource;
+
+    public record PlayerMatches(int playerId, MatchHistory matches) {}
+
+    public MatchStatsTable(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Insert new rows and overwrite changed ones for a season. Returns the number of rows written.
+     */
+    public int upsert(String season, Map<Integer, List<FeatureBuilderService.MatchStats>> histories) {
+        long started = System.nanoTime();
+        try (Connection c = dataSource.getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try (Statement st = c.createStatement()) {
+                st.execute("CREATE TEMP TABLE match_stats_load (LIKE match_stats) ON COMMIT DROP");
+
+                CopyIn copy = c.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY match_stats_load (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)");
+                long copied;
+                try {
+                    StringBuilder chunk = new StringBuilder(COPY_CHUNK + 256);
+                    for (Map.Entry<Integer, List<FeatureBuilderService.MatchStats>> e : histories.entrySet()) {
+                        for (FeatureBuilderService.MatchStats m : e.getValue()) {
+                            appendCsv(chunk, season, e.getKey(), m);
+                            if (chunk.length() >= COPY_CHUNK) flush(copy, chunk);
+                        }
+                    }
+                    flush(copy, chunk);
+                    copied = copy.endCopy();
+                } finally {
+                    if (copy.isActive()) copy.cancelCopy();
+                }
+
+                String changed = "(" + prefixed("match_stats.") + ") IS DISTINCT FROM (" + prefixed("EXCLUDED.") + ")";
+                int written = st.executeUpdate(
+                        "INSERT INTO match_stats (" + COLUMNS + ", updated_at) " +
+                        "SELECT DISTINCT ON (season, player_id, fixture_id) " + COLUMNS + ", now() FROM match_stats_load " +
+                        "ON CONFLICT (season, player_id, fixture_id) DO UPDATE SET " + assignments() + ", updated_at = now() " +
+                        "WHERE " + changed);
+                c.commit();
+
+                System.out.println("match_stats " + season + ": copied " + copied + " rows, wrote " + written
+                        + " in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+                return written;
+            } catch (SQLException | RuntimeException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load match_stats for " + season, e);
+        }
+    }
+
+    /**
+     * Every stored player history for a season, ordered by player then match, read through
+     * a cursor so the whole table is never held in memory.
+     */
+    public Flux<PlayerMatches> streamHistories(String season) {
+        return Flux.using(
+                        () -> new Cursor(dataSource, season),
+                        cursor -> Flux.<PlayerMatches>generate(sink -> {
+                            PlayerMatches next = cursor.next();
+                            if (next == null) sink.complete();
+                            else sink.next(next);
+                        }),
+                        Cursor::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static final class Cursor {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet rs;
+        private boolean hasRow;
+
+        Cursor(DataSource dataSource, String season) throws SQLException {
+            connection = dataSource.getConnection();
+            // The driver only uses a server-side cursor (honours fetchSize) inside a transaction
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(
+                    "SELECT player_id, fixture_id, " + STAT_COLUMNS + " FROM match_stats WHERE season = ? " +
+                    "ORDER BY player_id, round NULLS LAST, fixture_id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, season);
+            rs = statement.executeQuery();
+            hasRow = rs.next();
+        }
+
+        PlayerMatches next() {
+            try {
+                if (!hasRow) return null;
+                int playerId = rs.getInt("player_id");
+                MatchHistory.Builder b = new MatchHistory.Builder();
+                while (hasRow && rs.getInt("player_id") == playerId) {
+                    int i = b.next();
+                    b.fixtureId[i] = rs.getInt("fixture_id");
+                    int roundValue = rs.getInt("round");
+                    b.setRound(i, rs.wasNull() ? null : roundValue);
+                    b.minutes[i] = rs.getInt("minutes");
+                    b.goals[i] = rs.getInt("goals");
+                    b.assists[i] = rs.getInt("assists");
+                    b.cleanSheets[i] = rs.getInt("clean_sheets");
+                    b.saves[i] = rs.getInt("saves");
+                    b.bonus[i] = rs.getInt("bonus");
+                    b.goalsConceded[i] = rs.getInt("goals_conceded");
+                    b.cbi[i] = rs.getInt("cbi");
+                    b.yellow[i] = rs.getInt("yellow");
+                    b.red[i] = rs.getInt("red");
+                    b.ownGoals[i] = rs.getInt("own_goals");
+                    b.penaltiesSaved[i] = rs.getInt("penalties_saved");
+                    b.penaltiesMissed[i] = rs.getInt("penalties_missed");
+                    b.opponentTeamId[i] = rs.getInt("opponent_team_id");
+                    b.setHome(i, rs.getBoolean("was_home"));
+                    b.done();
+                    hasRow = rs.next();
+                }
+                return new PlayerMatches(playerId, b.build());
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed reading match_stats", e);
+            }
+        }
+
+        void close() {
+            try {
+                rs.close();
+                statement.close();
+                connection.commit();
+                connection.setAutoCommit(true);
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Failed to close match_stats cursor: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void appendCsv(StringBuilder sb, String season, int playerId, FeatureBuilderService.MatchStats m) {
+        sb.append(season).append(',')
+                .append(playerId).append(',')
+                .append(m.fixtureId()).append(',')
+                .append(m.round() == null ? "" : m.round()).append(',')
+                .append(m.minutes()).append(',')
+                .append(m.goals()).append(',')
+                .append(m.assists()).append(',')
+                .append(m.cleanSheets()).append(',')
+                .append(m.saves()).append(',')
+                .append(m.bonus()).append(',')
+                .append(m.goalsConceded()).append(',')
+                .append(m.cbi()).append(',')
+                .append(m.yellow()).append(',')
+                .append(m.red()).append(',')
+                .append(m.ownGoals()).append(',')
+                .append(m.penaltiesSaved()).append(',')
+                .append(m.penaltiesMissed()).append(',')
+                .append(m.opponentTeamId()).append(',')
+                .append(m.wasHome()).append('\n');
+    }
+
+    private static void flush(CopyIn copy, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) return;
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static String assignments() {
+        StringBuilder sb = new StringBuilder();
+        for (String col : STAT_COLUMNS.split(", ")) {
+            if (!sb.isEmpty()) sb.append(", ");
+            sb.append(col).append(" = EXCLUDED.").append(col);
+        }
+        return sb.toString();
+    }
+
+    private static String prefixed(String prefix) {
+        StringBuilder sb = new StringBuilder();
+        for (String col : STAT_COLUMNS.split(", ")) {
+            if (!sb.isEmpty()) sb.append(", ");
+            sb.append(prefix).append(col);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.PL.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Player, team and position metadata in flat arrays indexed by FPL id.
+ *
+ * FPL ids are small and dense (players ~1..800, teams 1..20, positions 1..4), so a lookup is
+ * one bounds check and one array read with no boxing or hashing. Built once per snapshot and
+ * never mutated afterwards, so it can be shared across threads freely.
+ */
+public final class PlayerTable {
+
+    /** Stored for ids that aren't in the snapshot, and for a missing now_cost. */
+    public static final int ABSENT = -1;
+
+    private final short[] teamIds;
+    private final short[] positionIds;
+    private final int[] nowCosts;
+    private final String[] webNames;
+    private final String[] positionNames;
+    private final String[] teamNames;
+
+    private PlayerTable(short[] teamIds, short[] positionIds, int[] nowCosts, String[] webNames,
+                        String[] positionNames, String[] teamNames) {
+        this.teamIds = teamIds;
+        this.positionIds = positionIds;
+        this.nowCosts = nowCosts;
+        this.webNames = webNames;
+        this.positionNames = positionNames;
+        this.teamNames = teamNames;
+    }
+
+    public static PlayerTable of(List<BootstrapSnapshot.Player> players,
+                                 List<BootstrapSnapshot.Team> teams,
+                                 List<BootstrapSnapshot.Position> positions) {
+        int maxId = 0;
+        for (BootstrapSnapshot.Player p : players) maxId = Math.max(maxId, p.id());
+
+        short[] teamIds = new short[maxId + 1];
+        short[] positionIds = new short[maxId + 1];
+        int[] nowCosts = new int[maxId + 1];
+        String[] webNames = new String[maxId + 1];
+        Arrays.fill(teamIds, (short) ABSENT);
+        Arrays.fill(positionIds, (short) ABSENT);
+        Arrays.fill(nowCosts, ABSENT);
+
+        for (BootstrapSnapshot.Player p : players) {
+            teamIds[p.id()] = (short) p.teamId();
+            positionIds[p.id()] = (short) p.positionId();
+            nowCosts[p.id()] = p.nowCost() == null ? ABSENT : p.nowCost();
+            // Interned so repeated snapshots share one String per name
+            webNames[p.id()] = p.webName() == null ? null : p.webName().intern();
+        }
+
+        int maxPosition = 0;
+        for (BootstrapSnapshot.Position p : positions) maxPosition = Math.max(maxPosition, p.id());
+        String[] positionNames = new String[maxPosition + 1];
+        for (BootstrapSnapshot.Position p : positions) positionNames[p.id()] = p.singularName().intern();
+
+        int maxTeam = 0;
+        for (BootstrapSnapshot.Team t : teams) maxTeam = Math.max(maxTeam, t.id());
+        String[] teamNames = new String[maxTeam + 1];
+        for (BootstrapSnapshot.Team t : teams) teamNames[t.id()] = t.name().intern();
+
+        return new PlayerTable(teamIds, positionIds, nowCosts, webNames, positionNames, teamNames);
+    }
+
+    public boolean contains(int playerId) {
+        return playerId >= 0 && playerId < teamIds.length && teamIds[playerId] != ABSENT;
+    }
+
+    public int teamId(int playerId, int fallback) {
+        return contains(playerId) ? teamIds[playerId] : fallback;
+    }
+
+    public int positionId(int playerId, int fallback) {
+        return contains(playerId) ? positionIds[playerId] : fallback;
+    }
+
+    /**
+     * Price in tenths of a million, or ABSENT.
+     */
+    public int nowCost(int playerId) {
+        return contains(playerId) ? nowCosts[playerId] : ABSENT;
+    }
+
+    public String webName(int playerId, String fallback) {
+        String name = contains(playerId) ? webNames[playerId] : null;
+        return name == null ? fallback : name;
+    }
+
+    public String positionName(int positionId, String fallback) {
+        String name = positionId >= 0 && positionId < positionNames.length ? positionNames[positionId] : null;
+        return name == null ? fallback : name;
+    }
+
+    public String teamName(int teamId, String fallback) {
+        String name = teamId >= 0 && teamId < teamNames.length ? teamNames[teamId] : null;
+        return name == null ? fallback : name;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.PL.service;
+
+import com.example.PL.dto.PredictionResponse;
+import com.example.PL.model.CurrentPrediction;
+import com.example.PL.model.PlayerPrediction;
+import com.example.PL.repository.CurrentPredictionRepository;
+import com.example.PL.repository.PlayerPredictionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only prediction history. Each generation run inserts its rows under a new runId and then
+ * switches the gameweek's CurrentPrediction pointer to it, so a regeneration never deletes the rows
+ * being served and earlier models' predictions stay queryable. Superseded runs are pruned in the
+ * background, one short delete per run.
+ *
+ * Run ids come from the prediction_run_seq sequence, so they are unique across instances and
+ * ordered by when the run started.
+ */
+@Service
+public class PredictionLogService {
+
+    private final PlayerPredictionRepository predictionRepository;
+    private final CurrentPredictionRepository currentRepository;
+    private final JdbcTemplate jdbc;
+    private final int retainRuns;
+
+    public PredictionLogService(PlayerPredictionRepository predictionRepository,
+                                CurrentPredictionRepository currentRepository,
+                                JdbcTemplate jdbc,
+                                @Value("${fpl.predictions.retain-runs:3}") int retainRuns) {
+        this.predictionRepository = predictionRepository;
+        this.currentRepository = currentRepository;
+        this.jdbc = jdbc;
+        this.retainRuns = retainRuns;
+    }
+
+    /**
+     * Create the run id sequence and carry over rows from the player_predictions table the log
+     * replaced. Legacy rows become run 0 of their gameweek, served until a new run is generated;
+     * the old table is kept as player_predictions_legacy. Every step is safe to repeat if startup
+     * is interrupted part way.
+     */
+    @PostConstruct
+    public void migrate() {
+        if (jdbc.queryForObject("SELECT to_regclass('prediction_run_seq') IS NULL", Boolean.class)) {
+            jdbc.execute("CREATE SEQUENCE IF NOT EXISTS prediction_run_seq");
+            // Runs logged before the sequence existed used epoch-millisecond ids; start above them
+            jdbc.execute("SELECT setval('prediction_run_seq', GREATEST(1, " +
+                    "(SELECT COALESCE(MAX(run_id), 0) FROM player_prediction_log), " +
+                    "(SELECT COALESCE(MAX(run_id), 0) FROM prediction_current)))");
+        }
+
+        if (jdbc.queryForObject("SELECT to_regclass('player_predictions') IS NOT NULL", Boolean.class)) {
+            int rows = jdbc.update("INSERT INTO player_prediction_log " +
+                    "(player_id, gameweek, fixture_id, predicted_points, prediction_date, model_version, run_id, actual_points) " +
+                    "SELECT player_id, gameweek, fixture_id, predicted_points, prediction_date, " +
+                    "COALESCE(model_version, 'unknown'), 0, actual_points FROM player_predictions " +
+                    "ON CONFLICT DO NOTHING");
+            jdbc.update("INSERT INTO prediction_current (gameweek, run_id, model_version, prediction_count, switched_at) " +
+                    "SELECT gameweek, 0, MAX(COALESCE(model_version, 'unknown')), COUNT(*), NOW() FROM player_predictions " +
+                    "GROUP BY gameweek ON CONFLICT (gameweek) DO NOTHING");
+            jdbc.execute("ALTER TABLE player_predictions RENAME TO player_predictions_legacy");
+            System.out.println("Prediction log: migrated " + rows + " rows from player_predictions as run 0");
+        }
+
+        // Wide covering indexes from earlier versions, superseded by idx_prediction_log_gameweek_run
+        jdbc.execute("DROP INDEX IF EXISTS idx_prediction_log_run");
+        jdbc.execute("DROP INDEX IF EXISTS idx_prediction_log_current");
+    }
+
+    /**
+     * Log one run's predictions for a gameweek and make it the current run. The rows and the
+     * pointer switch commit together, so compaction never sees a run that is still being written.
+     */
+    @Transactional
+    public List<PlayerPrediction> append(Integer gameweek, String modelVersion, List<PredictionResponse> predictions) {
+        long runId = predictionRepository.nextRunId();
+        String version = modelVersion == null ? "unknown" : modelVersion;
+
+        List<PlayerPrediction> entities = predictions.stream()
+                .map(pred -> new PlayerPrediction(
+                        pred.playerId(),
+                        pred.gameweek(),
+                        pred.fixtureId(),
+                        pred.predictedPoints(),
+                        version,
+                        runId
+                ))
+                .toList();
+
+        // Rows are invisible to readers until the pointer moves
+        List<PlayerPrediction> saved = predictionRepository.saveAll(entities);
+        if (currentRepository.switchTo(gameweek, runId, version, saved.size(), Instant.now()) == 0) {
+            System.out.println("Logged " + saved.size() + " predictions for GW" + gameweek + " as run " + runId
+                    + " (" + version + "), but a newer run is already current");
+            return saved;
+        }
+        System.out.println("Logged " + saved.size() + " predictions for GW" + gameweek + " as run " + runId + " (" + version + ")");
+        return saved;
+    }
+
+    public List<PlayerPrediction> current(Integer gameweek) {
+        return predictionRepository.findCurrentByGameweek(gameweek);
+    }
+
+    public List<PlayerPrediction> top(Integer gameweek, int limit) {
+        return predictionRepository.findCurrentTopByGameweek(gameweek, PageRequest.of(0, limit));
+    }
+
+    public PlayerPrediction currentFor(Integer playerId, Integer gameweek) {
+        return predictionRepository.findCurrentByPlayerIdAndGameweek(playerId, gameweek).orElse(null);
+    }
+
+    public boolean hasCurrent(Integer gameweek) {
+        return currentRepository.existsById(gameweek);
+    }
+
+    /**
+     * Per gameweek, keep the current run and the fpl.predictions.retain-runs newest runs before it.
+     * Only committed runs are visible here, and append commits a run together with its pointer switch,
+     * so a run still being written is never pruned. Runs newer than the current one are left alone.
+     */
+    @Scheduled(fixedDelayString = "${fpl.predictions.compact-interval:PT1H}", initialDelayString = "PT5M")
+    public void compact() {
+        Map<Integer, Long> current = new HashMap<>();
+        for (CurrentPrediction c : currentRepository.findAll()) current.put(c.getGameweek(), c.getRunId());
+
+        Map<Integer, List<Long>> runs = new TreeMap<>();
+        for (Object[] row : predictionRepository.findRuns()) {
+            runs.computeIfAbsent(((Number) row[0]).intValue(), k -> new ArrayList<>()).add(((Number) row[1]).longValue());
+        }
+
+        int prunedRuns = 0;
+        int prunedRows = 0;
+        for (Map.Entry<Integer, List<Long>> e : runs.entrySet()) {
+            Long currentRun = current.get(e.getKey());
+            if (currentRun == null) continue;
+
+            List<Long> superseded = new ArrayList<>();
+            for (long runId : e.getValue()) {
+                if (runId < currentRun) superseded.add(runId);
+            }
+            superseded.sort((a, b) -> Long.compare(b, a));
+
+            for (int i = retainRuns; i < superseded.size(); i++) {
+                prunedRows += predictionRepository.deleteRun(e.getKey(), superseded.get(i));
+                prunedRuns++;
+            }
+        }
+
+        if (prunedRuns > 0) {
+            System.out.println("Prediction log: pruned " + prunedRuns + " superseded runs (" + prunedRows + " rows)");
+        }
+    }
+}
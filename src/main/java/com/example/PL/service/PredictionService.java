@@ -5,31 +5,45 @@ import com.example.PL.dto.HealthResponse;
 import com.example.PL.dto.PredictionResponse;
 import com.example.PL.dto.TrainResponse;
 import com.example.PL.model.PlayerPrediction;
-import com.example.PL.repository.PlayerPredictionRepository;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class PredictionService {
 
     private final DatasetService datasetService;
     private final MLServiceClient mlServiceClient;
-    private final PlayerPredictionRepository predictionRepository;
+    private final PredictionLogService predictionLog;
     private final FplLookupService lookupService;
+    private final FplClient fplClient;
+    private final FeatureStoreService featureStore;
+    private final boolean useFeatureStore;
+    private final SeasonHistoryService seasonHistory;
+    private final boolean multiSeason;
 
     public PredictionService(DatasetService datasetService,
                              MLServiceClient mlServiceClient,
-                             PlayerPredictionRepository predictionRepository,
-                             FplLookupService lookupService) {
+                             PredictionLogService predictionLog,
+                             FplLookupService lookupService,
+                             FplClient fplClient,
+                             FeatureStoreService featureStore,
+                             @Value("${fpl.feature-store.enabled:false}") boolean useFeatureStore,
+                             SeasonHistoryService seasonHistory,
+                             @Value("${fpl.seasons.enabled:false}") boolean multiSeason) {
         this.datasetService = datasetService;
         this.mlServiceClient = mlServiceClient;
-        this.predictionRepository = predictionRepository;
+        this.predictionLog = predictionLog;
         this.lookupService = lookupService;
+        this.fplClient = fplClient;
+        this.featureStore = featureStore;
+        this.useFeatureStore = useFeatureStore;
+        this.seasonHistory = seasonHistory;
+        this.multiSeason = multiSeason;
     }
 
     /**
@@ -45,11 +59,30 @@ public class PredictionService {
      */
     public Mono<TrainResponse> trainModel() {
         System.out.println("Starting model training...");
-
-        return datasetService.trainingRowsAllPlayers()
+        FplResponseCache.Stats cacheBefore = fplClient.cacheStats();
+        FplConcurrencyLimiter.Stats limiterBefore = fplClient.limiterStats();
+
+        if (multiSeason) {
+            // Several seasons of rows: stream them to the ML service rather than collecting
+            return mlServiceClient.trainModel(seasonHistory.trainingRows())
+                    .doOnSuccess(response -> {
+                        System.out.println("FPL cache: " + fplClient.cacheStats().minus(cacheBefore));
+                        System.out.println("FPL upstream: " + fplClient.limiterStats().minus(limiterBefore));
+                        System.out.println("Model trained successfully: " + response.modelVersion());
+                    })
+                    .doOnError(error -> System.err.println("Model training failed: " + error.getMessage()));
+        }
+
+        Flux<PlayerFeatureRowDto> rows = useFeatureStore
+                ? featureStore.trainingRows()
+                : datasetService.trainingRowsAllPlayers();
+
+        return rows
                 .collectList()
                 .flatMap(trainingRows -> {
                     System.out.println("Collected " + trainingRows.size() + " training rows");
+                    System.out.println("FPL cache: " + fplClient.cacheStats().minus(cacheBefore));
+                    System.out.println("FPL upstream: " + fplClient.limiterStats().minus(limiterBefore));
 
                     if (trainingRows.isEmpty()) {
                         return Mono.error(new RuntimeException("No training data available"));
@@ -68,9 +101,11 @@ public class PredictionService {
     /**
      * Generate predictions for the next gameweek and save to database
      */
-    @Transactional
     public Mono<List<PlayerPrediction>> generateAndSavePredictions(Integer gameweek) {
         System.out.println("Generating predictions for gameweek " + gameweek);
+        FplResponseCache.Stats cacheBefore = fplClient.cacheStats();
+        FplConcurrencyLimiter.Stats limiterBefore = fplClient.limiterStats();
+        AtomicInteger skippedPlayers = new AtomicInteger();
 
         // First, check if ML service is ready
         return mlServiceClient.checkHealth()
@@ -81,20 +116,32 @@ public class PredictionService {
                         ));
                     }
 
-                    // Get all player IDs
-                    return lookupService.getAllPlayerIds()
+                    // Precomputed vectors when the feature store is on, the held histories in the incremental
+                    // ingest modes, otherwise one element-summary per player
+                    Flux<PlayerFeatureRowDto> rows = useFeatureStore
+                            ? featureStore.nextFixtureRows()
+                            : datasetService.holdsHistories()
+                            ? datasetService.nextFixtureRowsFromHistories()
+                            : lookupService.getAllPlayerIds()
                             .flatMapMany(Flux::fromIterable)
                             .flatMap(playerId ->
                                     // Get next fixture data for each player
                                     datasetService.nextFixtureRowForPlayer(playerId)
                                             .onErrorResume(e -> {
                                                 System.err.println("Failed to get data for player " + playerId + ": " + e.getMessage());
+                                                skippedPlayers.incrementAndGet();
                                                 return Mono.empty(); // Skip this player
-                                            })
-                            )
+                                            }),
+                                    fplClient.maxConcurrency()
+                            );
+
+                    return rows
                             .collectList()
                             .flatMap(featureRows -> {
                                 System.out.println("Collected feature data for " + featureRows.size() + " players");
+                                System.out.println("Skipped " + skippedPlayers.get() + " players");
+                                System.out.println("FPL cache: " + fplClient.cacheStats().minus(cacheBefore));
+                                System.out.println("FPL upstream: " + fplClient.limiterStats().minus(limiterBefore));
 
                                 if (featureRows.isEmpty()) {
                                     return Mono.error(new RuntimeException("No player data available for prediction"));
@@ -103,29 +150,7 @@ public class PredictionService {
                                 // Get predictions from ML service
                                 return mlServiceClient.predict(featureRows)
                                         .collectList()
-                                        .map(predictions -> {
-                                            // Save predictions to database
-                                            List<PlayerPrediction> entities = predictions.stream()
-                                                    .map(pred -> new PlayerPrediction(
-                                                            pred.playerId(),
-                                                            pred.gameweek(),
-                                                            pred.fixtureId(),
-                                                            pred.predictedPoints(),
-                                                            health.modelVersion()
-                                                    ))
-                                                    .toList();
-
-                                            // Delete old predictions for this gameweek if they exist
-                                            if (predictionRepository.existsByGameweek(gameweek)) {
-                                                predictionRepository.deleteByGameweek(gameweek);
-                                            }
-
-                                            // Save new predictions
-                                            List<PlayerPrediction> saved = predictionRepository.saveAll(entities);
-                                            System.out.println("Saved " + saved.size() + " predictions to database");
-
-                                            return saved;
-                                        });
+                                        .map(predictions -> predictionLog.append(gameweek, health.modelVersion(), predictions));
                             });
                 });
     }
@@ -134,31 +159,27 @@ public class PredictionService {
      * Get predictions for a specific gameweek from database
      */
     public List<PlayerPrediction> getPredictionsForGameweek(Integer gameweek) {
-        return predictionRepository.findByGameweek(gameweek);
+        return predictionLog.current(gameweek);
     }
 
     /**
      * Get top N predicted players for a gameweek
      */
     public List<PlayerPrediction> getTopPredictions(Integer gameweek, int limit) {
-        return predictionRepository.findTopByGameweekOrderByPredictedPointsDesc(
-                gameweek,
-                PageRequest.of(0, limit)
-        );
+        return predictionLog.top(gameweek, limit);
     }
 
     /**
      * Get prediction for a specific player in a gameweek
      */
     public PlayerPrediction getPredictionForPlayer(Integer playerId, Integer gameweek) {
-        return predictionRepository.findByPlayerIdAndGameweek(playerId, gameweek)
-                .orElse(null);
+        return predictionLog.currentFor(playerId, gameweek);
     }
 
     /**
      * Check if predictions exist for a gameweek
      */
     public boolean predictionsExist(Integer gameweek) {
-        return predictionRepository.existsByGameweek(gameweek);
+        return predictionLog.hasCurrent(gameweek);
     }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.example.PL.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-player prefix sums over every match stat and custom points, so the total or average of
+ * any stat between two gameweeks is two array reads.
+ *
+ * For each player, rows are ordered by gameweek and prefix[(r * STATS) + s] holds the sum of stat s
+ * over rows [0, r). upTo[gw] is the number of rows played in gameweeks 1..gw, so a range [a, b]
+ * is rows [upTo[a - 1], upTo[b]); double gameweeks included, blanks contributing nothing.
+ * Matches without a gameweek (postponed, not yet rescheduled) are left out.
+ */
+public final class RangeAggregateIndex {
+
+    public enum Stat {
+        MINUTES, GOALS, ASSISTS, CLEAN_SHEETS, SAVES, BONUS, GOALS_CONCEDED, CBI,
+        YELLOW, RED, OWN_GOALS, PENALTIES_SAVED, PENALTIES_MISSED, POINTS
+    }
+
+    static final int MAX_GAMEWEEK = 38;
+    private static final Stat[] STATS = Stat.values();
+    private static final int WIDTH = STATS.length;
+
+    private static final Comparator<FeatureBuilderService.MatchStats> BY_ROUND =
+            Comparator.comparing(FeatureBuilderService.MatchStats::round);
+
+    /**
+     * One player's sums, plus what they were built from so an unchanged history can be reused.
+     */
+    static final class PlayerSums {
+        final List<FeatureBuilderService.MatchStats> source;
+        final int positionId;
+        final int[] upTo = new int[MAX_GAMEWEEK + 1];
+        final int[] prefix;
+
+        PlayerSums(List<FeatureBuilderService.MatchStats> source, int positionId, FantasyScoringService scoring) {
+            this.source = source;
+            this.positionId = positionId;
+
+            List<FeatureBuilderService.MatchStats> rows = new ArrayList<>(source.size());
+            for (var m : source) {
+                if (m.round() != null && m.round() >= 1 && m.round() <= MAX_GAMEWEEK) rows.add(m);
+            }
+            rows.sort(BY_ROUND);
+
+            FantasyScoringService.Position pos = FantasyScoringService.Position.fromId(positionId);
+            prefix = new int[(rows.size() + 1) * WIDTH];
+            for (int r = 0; r < rows.size(); r++) {
+                var m = rows.get(r);
+                int base = r * WIDTH;
+                int next = base + WIDTH;
+                prefix[next + Stat.MINUTES.ordinal()] = prefix[base + Stat.MINUTES.ordinal()] + m.minutes();
+                prefix[next + Stat.GOALS.ordinal()] = prefix[base + Stat.GOALS.ordinal()] + m.goals();
+                prefix[next + Stat.ASSISTS.ordinal()] = prefix[base + Stat.ASSISTS.ordinal()] + m.assists();
+                prefix[next + Stat.CLEAN_SHEETS.ordinal()] = prefix[base + Stat.CLEAN_SHEETS.ordinal()] + m.cleanSheets();
+                prefix[next + Stat.SAVES.ordinal()] = prefix[base + Stat.SAVES.ordinal()] + m.saves();
+                prefix[next + Stat.BONUS.ordinal()] = prefix[base + Stat.BONUS.ordinal()] + m.bonus();
+                prefix[next + Stat.GOALS_CONCEDED.ordinal()] = prefix[base + Stat.GOALS_CONCEDED.ordinal()] + m.goalsConceded();
+                prefix[next + Stat.CBI.ordinal()] = prefix[base + Stat.CBI.ordinal()] + m.cbi();
+                prefix[next + Stat.YELLOW.ordinal()] = prefix[base + Stat.YELLOW.ordinal()] + m.yellow();
+                prefix[next + Stat.RED.ordinal()] = prefix[base + Stat.RED.ordinal()] + m.red();
+                prefix[next + Stat.OWN_GOALS.ordinal()] = prefix[base + Stat.OWN_GOALS.ordinal()] + m.ownGoals();
+                prefix[next + Stat.PENALTIES_SAVED.ordinal()] = prefix[base + Stat.PENALTIES_SAVED.ordinal()] + m.penaltiesSaved();
+                prefix[next + Stat.PENALTIES_MISSED.ordinal()] = prefix[base + Stat.PENALTIES_MISSED.ordinal()] + m.penaltiesMissed();
+                prefix[next + Stat.POINTS.ordinal()] = prefix[base + Stat.POINTS.ordinal()] + scoring.scoreMatch(m, pos);
+            }
+
+            int r = 0;
+            for (int gw = 1; gw <= MAX_GAMEWEEK; gw++) {
+                while (r < rows.size() && rows.get(r).round() <= gw) r++;
+                upTo[gw] = r;
+            }
+        }
+    }
+
+    private final Instant builtAt;
+    private final Map<Integer, PlayerSums> players;
+
+    private RangeAggregateIndex(Instant builtAt, Map<Integer, PlayerSums> players) {
+        this.builtAt = builtAt;
+        this.players = players;
+    }
+
+    /**
+     * Build from playerId -> history, reusing the previous index's sums for any player whose
+     * history list and position are unchanged (the incremental ingest keeps those lists as-is).
+     */
+    public static RangeAggregateIndex build(Map<Integer, List<FeatureBuilderService.MatchStats>> histories,
+                                            PlayerTable table,
+                                            FantasyScoringService scoring,
+                                            RangeAggregateIndex previous,
+                                            Instant builtAt) {
+        Map<Integer, PlayerSums> out = new HashMap<>(histories.size() * 2);
+        for (Map.Entry<Integer, List<FeatureBuilderService.MatchStats>> e : histories.entrySet()) {
+            int positionId = table.positionId(e.getKey(), 0);
+            PlayerSums old = previous == null ? null : previous.players.get(e.getKey());
+            out.put(e.getKey(), old != null && old.source == e.getValue() && old.positionId == positionId
+                    ? old
+                    : new PlayerSums(e.getValue(), positionId, scoring));
+        }
+        return new RangeAggregateIndex(builtAt, Collections.unmodifiableMap(out));
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    public boolean contains(int playerId) {
+        return players.containsKey(playerId);
+    }
+
+    /**
+     * Matches played in gameweeks [fromGw, toGw]; 0 for an unknown player or empty range.
+     */
+    public int matches(int playerId, int fromGw, int toGw) {
+        PlayerSums p = players.get(playerId);
+        if (p == null) return 0;
+        int lo = clamp(fromGw - 1), hi = clamp(toGw);
+        return hi > lo ? p.upTo[hi] - p.upTo[lo] : 0;
+    }
+
+    /**
+     * Sum of one stat over gameweeks [fromGw, toGw]; 0 for an unknown player or empty range.
+     */
+    public int sum(int playerId, Stat stat, int fromGw, int toGw) {
+        PlayerSums p = players.get(playerId);
+        if (p == null) return 0;
+        int lo = clamp(fromGw - 1), hi = clamp(toGw);
+        if (hi <= lo) return 0;
+        return p.prefix[p.upTo[hi] * WIDTH + stat.ordinal()] - p.prefix[p.upTo[lo] * WIDTH + stat.ordinal()];
+    }
+
+    /**
+     * Per-match average of one stat over gameweeks [fromGw, toGw]; 0 when no matches were played.
+     */
+    public double average(int playerId, Stat stat, int fromGw, int toGw) {
+        int n = matches(playerId, fromGw, toGw);
+        return n == 0 ? 0.0 : (double) sum(playerId, stat, fromGw, toGw) / n;
+    }
+
+    private static int clamp(int gw) {
+        return Math.max(0, Math.min(MAX_GAMEWEEK, gw));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.PL.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gameweek-range totals and averages per player, answered from a RangeAggregateIndex that is
+ * rebuilt after each incremental ingest (at most once per fpl.range-index.ttl).
+ */
+@Service
+public class RangeAggregateService {
+
+    private final IncrementalIngestionService incrementalIngestion;
+    private final FplLookupService lookupService;
+    private final FantasyScoringService scoringService;
+    private final SingleFlightCache<RangeAggregateIndex> index;
+
+    public record RangeRequest(List<Integer> playerIds, Integer fromGameweek, Integer toGameweek) {}
+
+    public record Aggregate(
+            int playerId,
+            int fromGameweek,
+            int toGameweek,
+            int matches,
+            Map<RangeAggregateIndex.Stat, Integer> totals,
+            Map<RangeAggregateIndex.Stat, Double> averages
+    ) {}
+
+    public RangeAggregateService(IncrementalIngestionService incrementalIngestion,
+                                 FplLookupService lookupService,
+                                 FantasyScoringService scoringService,
+                                 @Value("${fpl.range-index.ttl:PT10M}") Duration ttl) {
+        this.incrementalIngestion = incrementalIngestion;
+        this.lookupService = lookupService;
+        this.scoringService = scoringService;
+        this.index = new SingleFlightCache<>("Range index",
+                idx -> idx.builtAt().plus(ttl).isBefore(Instant.now()),
+                RangeAggregateIndex::builtAt,
+                this::build);
+    }
+
+    /**
+     * Current index; concurrent callers during a rebuild share one ingest and build.
+     */
+    public Mono<RangeAggregateIndex> getIndex() {
+        return index.get();
+    }
+
+    public Mono<Integer> sum(int playerId, RangeAggregateIndex.Stat stat, int fromGw, int toGw) {
+        return getIndex().map(idx -> idx.sum(playerId, stat, fromGw, toGw));
+    }
+
+    public Mono<Double> average(int playerId, RangeAggregateIndex.Stat stat, int fromGw, int toGw) {
+        return getIndex().map(idx -> idx.average(playerId, stat, fromGw, toGw));
+    }
+
+    /**
+     * Every stat over the same gameweek range for each requested player; unknown players are skipped.
+     */
+    public Mono<List<Aggregate>> aggregates(RangeRequest request) {
+        int from = request.fromGameweek() == null ? 1 : request.fromGameweek();
+        int to = request.toGameweek() == null ? RangeAggregateIndex.MAX_GAMEWEEK : request.toGameweek();
+        List<Integer> ids = request.playerIds() == null ? List.of() : request.playerIds();
+
+        return getIndex().map(idx -> {
+            List<Aggregate> out = new ArrayList<>(ids.size());
+            for (int playerId : ids) {
+                if (!idx.contains(playerId)) continue;
+                Map<RangeAggregateIndex.Stat, Integer> totals = new EnumMap<>(RangeAggregateIndex.Stat.class);
+                Map<RangeAggregateIndex.Stat, Double> averages = new EnumMap<>(RangeAggregateIndex.Stat.class);
+                int matches = idx.matches(playerId, from, to);
+                for (RangeAggregateIndex.Stat stat : RangeAggregateIndex.Stat.values()) {
+                    int total = idx.sum(playerId, stat, from, to);
+                    totals.put(stat, total);
+                    averages.put(stat, matches == 0 ? 0.0 : (double) total / matches);
+                }
+                out.add(new Aggregate(playerId, from, to, matches, totals, averages));
+            }
+            return out;
+        });
+    }
+
+    /**
+     * Rebuild after an incremental ingest, reusing the previous index's sums where a player is unchanged.
+     */
+    private Mono<RangeAggregateIndex> build(RangeAggregateIndex previous) {
+        return Mono.zip(lookupService.getSnapshot(), incrementalIngestion.refresh())
+                .publishOn(Schedulers.boundedElastic())
+                .map(tuple -> {
+                    long started = System.nanoTime();
+                    RangeAggregateIndex idx = RangeAggregateIndex.build(
+                            tuple.getT2(), tuple.getT1().table(), scoringService, previous, Instant.now());
+                    System.out.println("Range index: " + idx.size() + " players in "
+                            + (System.nanoTime() - started) / 1_000_000 + " ms");
+                    return idx;
+                });
+    }
+}
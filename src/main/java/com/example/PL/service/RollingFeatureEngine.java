@@ -0,0 +1,166 @@
+package com.example.PL.service;
+
+/**
+ * One forward pass over a player's history producing the rolling averages for every row.
+ *
+ * Stats are laid out as primitive columns (one int[] per stat, in RollingFeatures order) and the
+ * window is maintained as running sums: add the match leaving the prior window's right edge,
+ * subtract the one falling off its left. Row i averages matches [i - min(window, i), i), matching
+ * the per-row sublist averages it replaced down to the bit, since both divide the same long sum by
+ * the same count (see RollingFeatureEngineTest).
+ *
+ * The FeatureSpec variant keeps one prefix sum per stat instead, so every window (and the
+ * season-to-date mean) is a difference of two entries: extra windows cost a subtraction each,
+ * done a column at a time by a WindowSumKernel so it can run on SIMD lanes.
+ */
+public final class RollingFeatureEngine {
+
+    public static final int MINUTES = 0;
+    public static final int POINTS = 1;
+    public static final int GOALS = 2;
+    public static final int ASSISTS = 3;
+    public static final int SAVES = 4;
+    public static final int CLEAN_SHEETS = 5;
+    public static final int BONUS = 6;
+    public static final int GOALS_CONCEDED = 7;
+    public static final int CBI = 8;
+    public static final int YELLOW = 9;
+    public static final int RED = 10;
+    public static final int STATS = 11;
+
+    private RollingFeatureEngine() {}
+
+    /**
+     * Output of a spec pass: the fixed-window features per row, plus spec.width() values per row
+     * in FeatureSpec.names() order, row-major (row from + k starts at k * width).
+     */
+    public record Pass(FeatureBuilderService.RollingFeatures[] core, double[] extra, int width) {}
+
+    /**
+     * The history's own columns, not copies; it must have been scored (customPoints set).
+     */
+    public static int[][] columns(MatchHistory history) {
+        if (history.customPoints == null) throw new IllegalArgumentException("history has not been scored");
+        int[][] cols = new int[STATS][];
+        cols[MINUTES] = history.minutes;
+        cols[POINTS] = history.customPoints;
+        cols[GOALS] = history.goals;
+        cols[ASSISTS] = history.assists;
+        cols[SAVES] = history.saves;
+        cols[CLEAN_SHEETS] = history.cleanSheets;
+        cols[BONUS] = history.bonus;
+        cols[GOALS_CONCEDED] = history.goalsConceded;
+        cols[CBI] = history.cbi;
+        cols[YELLOW] = history.yellow;
+        cols[RED] = history.red;
+        return cols;
+    }
+
+    /**
+     * Features for rows from..to-1 of a history with the given columns; result[k] is row from + k.
+     * Row n (the history length) is the next, unplayed fixture, so to may be up to n + 1.
+     */
+    public static FeatureBuilderService.RollingFeatures[] forward(int[][] cols, int from, int to, int window) {
+        FeatureBuilderService.RollingFeatures[] out = new FeatureBuilderService.RollingFeatures[Math.max(0, to - from)];
+        if (out.length == 0) return out;
+
+        long[] sums = new long[STATS];
+        int lo = 0;
+        for (int i = 0; i < to; i++) {
+            // sums now cover [lo, i)
+            if (i >= from) {
+                int count = i - lo;
+                out[i - from] = count == 0 ? empty() : average(sums, count);
+            }
+            if (i + 1 == to) break;
+            for (int s = 0; s < STATS; s++) sums[s] += cols[s][i];
+            if (i + 1 - lo > window) {
+                for (int s = 0; s < STATS; s++) sums[s] -= cols[s][lo];
+                lo++;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Same core features as forward(cols, from, to, window), plus the spec's windows and
+     * season-to-date averages, all from one set of prefix sums. Season-to-date covers rows
+     * [seasonStart, i), so histories that carry earlier-season matches in front can still average
+     * this season only. The windowed sums go through kernel (see FeatureBuilderService.windowKernel).
+     */
+    public static Pass forward(int[][] cols, int from, int to, int window, FeatureSpec spec, int seasonStart,
+                               WindowSumKernel kernel) {
+        int rows = Math.max(0, to - from);
+        int width = spec.width();
+        var core = new FeatureBuilderService.RollingFeatures[rows];
+        double[] extra = new double[rows * width];
+        if (rows == 0) return new Pass(core, extra, width);
+
+        // prefix[s][i] = sum of stat s over rows [0, i)
+        int[][] prefix = new int[STATS][];
+        for (int s = 0; s < STATS; s++) {
+            prefix[s] = new int[cols[s].length + 1];
+            kernel.prefixSums(cols[s], prefix[s]);
+        }
+
+        int[][] coreSums = new int[STATS][rows];
+        kernel.windowSums(prefix, from, to, window, coreSums);
+        long[] sums = new long[STATS];
+        for (int k = 0; k < rows; k++) {
+            int n = Math.min(window, from + k);
+            if (n == 0) {
+                core[k] = empty();
+            } else {
+                for (int s = 0; s < STATS; s++) sums[s] = coreSums[s][k];
+                core[k] = average(sums, n);
+            }
+        }
+
+        // extra is row-major; fill it one feature (column f) at a time
+        int[] block = new int[rows];
+        int f = 0;
+        for (int w : spec.windows()) {
+            for (int s : spec.stats()) {
+                kernel.windowSums(prefix[s], from, to, w, block);
+                for (int k = 0; k < rows; k++) {
+                    int c = Math.min(w, from + k);
+                    extra[k * width + f] = c == 0 ? 0.0 : (double) block[k] / c;
+                }
+                f++;
+            }
+        }
+        if (spec.seasonToDate()) {
+            for (int s : spec.stats()) {
+                int[] p = prefix[s];
+                for (int k = 0; k < rows; k++) {
+                    int i = from + k;
+                    int start = Math.min(seasonStart, i);
+                    int c = i - start;
+                    extra[k * width + f] = c == 0 ? 0.0 : (double) (p[i] - p[start]) / c;
+                }
+                f++;
+            }
+        }
+        return new Pass(core, extra, width);
+    }
+
+    private static FeatureBuilderService.RollingFeatures average(long[] sums, int n) {
+        return new FeatureBuilderService.RollingFeatures(
+                (double) sums[MINUTES] / n,
+                (double) sums[POINTS] / n,
+                (double) sums[GOALS] / n,
+                (double) sums[ASSISTS] / n,
+                (double) sums[SAVES] / n,
+                (double) sums[CLEAN_SHEETS] / n,
+                (double) sums[BONUS] / n,
+                (double) sums[GOALS_CONCEDED] / n,
+                (double) sums[CBI] / n,
+                (double) sums[YELLOW] / n,
+                (double) sums[RED] / n
+        );
+    }
+
+    private static FeatureBuilderService.RollingFeatures empty() {
+        return new FeatureBuilderService.RollingFeatures(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.PL.service;
+
+/**
+ * Plain loops; the fallback when the Vector API isn't available, and the reference it's checked against.
+ */
+public final class ScalarWindowSumKernel implements WindowSumKernel {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void prefixSums(int[] col, int[] prefix) {
+        prefix[0] = 0;
+        for (int i = 0; i < col.length; i++) prefix[i + 1] = prefix[i] + col[i];
+    }
+
+    @Override
+    public void windowSums(int[] prefix, int from, int to, int window, int[] out) {
+        for (int i = from; i < to; i++) out[i - from] = prefix[i] - prefix[Math.max(0, i - window)];
+    }
+}
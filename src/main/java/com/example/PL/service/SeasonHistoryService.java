@@ -0,0 +1,232 @@
+package com.example.PL.service;
+
+import com.example.PL.dto.PlayerFeatureRowDto;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Training history across seasons, one MatchHistoryStore partition per season.
+ *
+ * Besides the match columns each partition keeps that season's bootstrap.json and fixtures.json, so
+ * names, positions, element codes and difficulty resolve against the season the match was played in.
+ * Earlier seasons come from FplArchive recordings made during them (fpl.seasons.archives); the current
+ * season is appended from the incremental ingest and its metadata rewritten each run, which makes it
+ * next year's archived partition.
+ */
+@Service
+public class SeasonHistoryService {
+
+    private static final String BOOTSTRAP_FILE = "bootstrap.json";
+    private static final String FIXTURES_FILE = "fixtures.json";
+    private static final String SUMMARY_PREFIX = "/element-summary/";
+
+    private final FplClient fplClient;
+    private final ObjectMapper objectMapper;
+    private final ElementSummaryDecoder summaryDecoder;
+    private final IncrementalIngestionService incrementalIngestion;
+    private final MatchHistoryStore historyStore;
+    private final DatasetService datasetService;
+    private final List<String> archives;
+    private final int maxSeasons;
+
+    /**
+     * One season's metadata; the match rows stay in the store and are sliced per player.
+     */
+    private record Partition(String season, BootstrapSnapshot snapshot, Map<Integer, Integer> codes, FixtureIndex fixtures) {}
+
+    public SeasonHistoryService(FplClient fplClient,
+                                ObjectMapper objectMapper,
+                                ElementSummaryDecoder summaryDecoder,
+                                IncrementalIngestionService incrementalIngestion,
+                                MatchHistoryStore historyStore,
+                                DatasetService datasetService,
+                                @Value("${fpl.seasons.archives:}") String archives,
+                                @Value("${fpl.seasons.max:5}") int maxSeasons) {
+        this.fplClient = fplClient;
+        this.objectMapper = objectMapper;
+        this.summaryDecoder = summaryDecoder;
+        this.incrementalIngestion = incrementalIngestion;
+        this.historyStore = historyStore;
+        this.datasetService = datasetService;
+        this.archives = Arrays.stream(archives.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        this.maxSeasons = maxSeasons;
+    }
+
+    /**
+     * Import the configured prior-season archives once at startup. Re-importing is harmless:
+     * rows already stored are skipped and existing partition metadata is kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void importConfiguredArchives() {
+        if (archives.isEmpty()) return;
+        Flux.fromIterable(archives)
+                .concatMap(a -> Mono.fromCallable(() -> importArchive(Path.of(a))).subscribeOn(Schedulers.boundedElastic()))
+                .subscribe(
+                        season -> System.out.println("✓ Imported season " + season + " into the history store"),
+                        error -> System.err.println("✗ Season archive import failed: " + error.getMessage())
+                );
+    }
+
+    /**
+     * Load one season's recording (see FplArchiveRecorder) into its partition. Returns the season imported.
+     */
+    public String importArchive(Path file) {
+        Map<String, byte[]> responses = FplArchive.read(file);
+        byte[] bootstrap = responses.get("/bootstrap-static/");
+        if (bootstrap == null) throw new IllegalStateException(file + " has no bootstrap-static response");
+
+        BootstrapSnapshot snapshot = BootstrapSnapshot.fromJson(objectMapper.readTree(bootstrap), Instant.now());
+        String season = snapshot.season();
+        if (season == null) throw new IllegalStateException("Cannot tell which season " + file + " was recorded in");
+
+        Map<Integer, List<FeatureBuilderService.MatchStats>> histories = new HashMap<>();
+        for (Map.Entry<String, byte[]> e : responses.entrySet()) {
+            String path = e.getKey();
+            if (!path.startsWith(SUMMARY_PREFIX)) continue;
+            int playerId = Integer.parseInt(path.substring(SUMMARY_PREFIX.length(), path.length() - 1));
+            histories.put(playerId, summaryDecoder.decode(e.getValue()).toMatchStats());
+        }
+
+        writeIfAbsent(season, BOOTSTRAP_FILE, bootstrap);
+        byte[] fixtures = responses.get("/fixtures/");
+        if (fixtures != null) writeIfAbsent(season, FIXTURES_FILE, fixtures);
+
+        int appended = historyStore.append(season, histories);
+        System.out.println("Season " + season + " from " + file + ": " + appended + " new rows");
+        return season;
+    }
+
+    /**
+     * Labelled rows for every stored season, oldest first, built one partition at a time.
+     *
+     * Rolling windows and form run on across season boundaries: each player's whole previous season
+     * (matched on element code) is the prior history for the next, so every fpl.features.windows
+     * window and the exponentially weighted form start a season from the same matches they would
+     * mid-season. Only one partition's metadata and the previous season's matches are held at once,
+     * never the full set.
+     */
+    public Flux<PlayerFeatureRowDto> trainingRows() {
+        return Mono.zip(fplClient.getBootstrapStaticBytes(), fplClient.getFixturesBytes(), incrementalIngestion.refresh())
+                .publishOn(Schedulers.boundedElastic())
+                .map(tuple -> seasonOf(recordCurrentSeason(tuple.getT1(), tuple.getT2(), tuple.getT3())))
+                .flatMapMany(current -> {
+                    List<String> seasons = trainingSeasons(current);
+                    System.out.println("Multi-season training set: " + seasons);
+
+                    Map<Integer, List<FeatureBuilderService.MatchStats>> carry = new HashMap<>();
+                    return Flux.fromIterable(seasons)
+                            .concatMap(season -> Mono.fromCallable(() -> loadPartition(season))
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    .flatMapMany(p -> partitionRows(p, carry)));
+                });
+    }
+
+    private Flux<PlayerFeatureRowDto> partitionRows(Partition p,
+                                                    Map<Integer, List<FeatureBuilderService.MatchStats>> carry) {
+        Map<Integer, List<FeatureBuilderService.MatchStats>> next = new HashMap<>();
+
+        return Flux.fromIterable(p.snapshot().playerIds())
+                .concatMap(playerId -> {
+                    List<FeatureBuilderService.MatchStats> played = historyStore.slice(p.season(), playerId).toMatchStats();
+                    if (played.isEmpty()) return Flux.empty();
+
+                    Integer code = p.codes().get(playerId);
+                    List<FeatureBuilderService.MatchStats> prior = code == null ? List.of() : carry.getOrDefault(code, List.of());
+                    List<FeatureBuilderService.MatchStats> history = new ArrayList<>(prior.size() + played.size());
+                    history.addAll(prior);
+                    history.addAll(played);
+                    if (code != null) next.put(code, played);
+
+                    return Flux.fromIterable(datasetService.trainingRowsFrom(p.snapshot(), p.fixtures(), playerId,
+                            MatchHistory.of(history), prior.size(), prior.size()));
+                })
+                // Players who sat a season out start the next one cold
+                .doOnComplete(() -> {
+                    carry.clear();
+                    carry.putAll(next);
+                });
+    }
+
+    private BootstrapSnapshot recordCurrentSeason(byte[] bootstrap,
+                                                  byte[] fixtures,
+                                                  Map<Integer, List<FeatureBuilderService.MatchStats>> histories) {
+        BootstrapSnapshot snapshot = BootstrapSnapshot.fromJson(objectMapper.readTree(bootstrap), Instant.now());
+        String season = seasonOf(snapshot);
+
+        write(season, BOOTSTRAP_FILE, bootstrap);
+        write(season, FIXTURES_FILE, fixtures);
+        int appended = historyStore.append(season, histories);
+        System.out.println("History store " + season + ": appended " + appended + " rows");
+        return snapshot;
+    }
+
+    /**
+     * The last fpl.seasons.max partitions up to and including the current one that have metadata.
+     */
+    private List<String> trainingSeasons(String current) {
+        List<String> seasons = historyStore.seasons().stream()
+                .filter(s -> s.compareTo(current) <= 0)
+                .filter(s -> Files.exists(historyStore.partition(s).resolve(BOOTSTRAP_FILE)))
+                .toList();
+        return seasons.subList(Math.max(0, seasons.size() - maxSeasons), seasons.size());
+    }
+
+    private Partition loadPartition(String season) throws IOException {
+        Path dir = historyStore.partition(season);
+        Path bootstrapFile = dir.resolve(BOOTSTRAP_FILE);
+        Instant recordedAt = Files.getLastModifiedTime(bootstrapFile).toInstant();
+        JsonNode bootstrap = objectMapper.readTree(Files.readAllBytes(bootstrapFile));
+
+        Map<Integer, Integer> codes = new HashMap<>();
+        for (JsonNode e : bootstrap.get("elements")) {
+            JsonNode code = e.get("code");
+            if (code != null && !code.isNull()) codes.put(e.get("id").asInt(), code.asInt());
+        }
+
+        Path fixturesFile = dir.resolve(FIXTURES_FILE);
+        FixtureIndex fixtures = Files.exists(fixturesFile)
+                ? FixtureIndex.fromJson(objectMapper.readTree(Files.readAllBytes(fixturesFile)), recordedAt)
+                : FixtureIndex.of(recordedAt, List.of());
+
+        return new Partition(season, BootstrapSnapshot.fromJson(bootstrap, recordedAt), codes, fixtures);
+    }
+
+    private void writeIfAbsent(String season, String name, byte[] body) {
+        if (!Files.exists(historyStore.partition(season).resolve(name))) write(season, name, body);
+    }
+
+    private void write(String season, String name, byte[] body) {
+        Path file = historyStore.partition(season).resolve(name);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), name, ".tmp");
+            Files.write(tmp, body);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + file, e);
+        }
+    }
+
+    private static String seasonOf(BootstrapSnapshot snapshot) {
+        return snapshot.season() == null ? "current" : snapshot.season();
+    }
+}
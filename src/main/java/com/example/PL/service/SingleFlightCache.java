@@ -0,0 +1,93 @@
+package com.example.PL.service;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * One value kept until it goes stale. The refresh that replaces it is shared by everyone who asks
+ * while it runs, and if it fails the last good value is served instead of an error.
+ *
+ * The loader gets the value being replaced (null on the first load), for refreshes that build on it.
+ */
+public final class SingleFlightCache<T> {
+
+    private final String name;
+    private final Predicate<T> isStale;
+    private final Function<T, Instant> stampOf;
+    private final Function<T, Mono<T>> loader;
+
+    private volatile T current;
+    private final AtomicReference<Mono<T>> inFlight = new AtomicReference<>();
+
+    /**
+     * name is only used in log lines; stampOf gives the time a value was fetched or built, for the
+     * same.
+     */
+    public SingleFlightCache(String name, Predicate<T> isStale, Function<T, Instant> stampOf,
+                             Function<T, Mono<T>> loader) {
+        this.name = name;
+        this.isStale = isStale;
+        this.stampOf = stampOf;
+        this.loader = loader;
+    }
+
+    /**
+     * The current value if it isn't stale, otherwise a refreshed one (or the last good one if that fails).
+     */
+    public Mono<T> get() {
+        T value = current;
+        if (value != null && !isStale.test(value)) {
+            return Mono.just(value);
+        }
+        return refresh()
+                .onErrorResume(e -> {
+                    // Serve the last good copy rather than failing every caller on a blip
+                    T last = current;
+                    if (last == null) return Mono.error(e);
+                    System.err.println(name + " refresh failed, serving copy from " + stampOf.apply(last) + ": " + e.getMessage());
+                    return Mono.just(last);
+                });
+    }
+
+    /**
+     * Load a new value now, or join the load already running; errors are passed on.
+     */
+    public Mono<T> refresh() {
+        while (true) {
+            Mono<T> existing = inFlight.get();
+            if (existing != null) return existing;
+
+            Mono<T> load = Mono.defer(() -> loader.apply(current))
+                    .doOnNext(v -> current = v)
+                    .doFinally(signal -> inFlight.set(null))
+                    .cache();
+
+            if (inFlight.compareAndSet(null, load)) return load;
+        }
+    }
+
+    /**
+     * Last value held, without triggering a load.
+     */
+    public T peek() {
+        return current;
+    }
+
+    /**
+     * Install a value if nothing has been loaded yet, e.g. one restored from disk.
+     */
+    public void seed(T value) {
+        if (current == null) current = value;
+    }
+
+    /**
+     * Drop the value so the next get() loads a fresh one.
+     */
+    public void invalidate() {
+        current = null;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.PL.service;
+
+import com.example.PL.model.FplCacheEntry;
+import com.example.PL.repository.FplCacheEntryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Two-tier cache for raw FPL responses.
+ *
+ * L1 is a per-instance LRU with a TTL. L2 is the fpl_cache_entries table in the shared
+ * Postgres: gzip'd bodies with a version stamp, plus a lease so only one instance refreshes
+ * a key per TTL window while the others wait for its result. Tiers are picked with
+ * fpl.cache.tiers (none | l1 | l1,l2).
+ */
+@Service
+public class TieredFplCache {
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+    private static final Duration LEASE_POLL = Duration.ofMillis(250);
+
+    private final FplCacheEntryRepository repository;
+    private final boolean l1Enabled;
+    private final boolean l2Enabled;
+    private final Duration ttl;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, Entry> l1;
+    private final Map<String, Mono<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * A cached body and when it was fetched from upstream (not when it was last read from a tier).
+     */
+    public record Entry(byte[] body, Instant fetchedAt) {}
+
+    public TieredFplCache(FplCacheEntryRepository repository,
+                          @Value("${fpl.cache.tiers:l1}") String tiers,
+                          @Value("${fpl.cache.ttl:PT5M}") Duration ttl,
+                          @Value("${fpl.cache.l1.max-entries:2000}") int maxEntries) {
+        List<String> enabled = Arrays.stream(tiers.split(",")).map(String::trim).toList();
+        this.repository = repository;
+        this.l1Enabled = enabled.contains("l1");
+        this.l2Enabled = enabled.contains("l2");
+        this.ttl = ttl;
+        this.l1 = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Body for key from the first tier that has a fresh copy, otherwise from the loader.
+     * Concurrent misses for the same key in this instance share one load.
+     */
+    public Mono<byte[]> get(String key, Supplier<Mono<byte[]>> loader) {
+        return getEntry(key, Instant.EPOCH, loader).map(Entry::body);
+    }
+
+    /**
+     * Like get, but with the body's upstream fetch time, and treating any copy fetched before
+     * notBefore as expired: a caller that knows upstream changed at some instant never gets an older copy.
+     */
+    public Mono<Entry> getEntry(String key, Instant notBefore, Supplier<Mono<byte[]>> loader) {
+        if (!l1Enabled && !l2Enabled) return load(loader);
+
+        Entry local = l1Get(key, notBefore);
+        if (local != null) return Mono.just(local);
+
+        return inFlight.computeIfAbsent(key, k -> (l2Enabled ? fromL2(k, notBefore, loader) : load(loader))
+                        .doOnNext(e -> l1Put(k, e))
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache())
+                // A load already in flight for someone else may have found an L2 copy older than we accept
+                .flatMap(e -> e.fetchedAt().isBefore(notBefore)
+                        ? load(loader).doOnNext(fresh -> l1Put(key, fresh))
+                        : Mono.just(e));
+    }
+
+    public void invalidate(String key) {
+        synchronized (l1) {
+            l1.remove(key);
+        }
+    }
+
+    private static Mono<Entry> load(Supplier<Mono<byte[]>> loader) {
+        return loader.get().map(body -> new Entry(body, Instant.now()));
+    }
+
+    private Entry l1Get(String key, Instant notBefore) {
+        if (!l1Enabled) return null;
+        synchronized (l1) {
+            Entry e = l1.get(key);
+            if (e == null) return null;
+            if (isExpired(e.fetchedAt())) {
+                l1.remove(key);
+                return null;
+            }
+            return e.fetchedAt().isBefore(notBefore) ? null : e;
+        }
+    }
+
+    private void l1Put(String key, Entry entry) {
+        if (!l1Enabled) return;
+        synchronized (l1) {
+            l1.put(key, entry);
+        }
+    }
+
+    private Mono<Entry> fromL2(String key, Instant notBefore, Supplier<Mono<byte[]>> loader) {
+        return Mono.fromCallable(() -> readFresh(key, notBefore))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(fresh -> {
+                    if (fresh.isPresent()) return Mono.just(fresh.get());
+
+                    return Mono.fromCallable(() -> {
+                                repository.insertIfMissing(key);
+                                Instant now = Instant.now();
+                                return repository.tryLease(key, instanceId, now, now.plus(LEASE)) == 1;
+                            })
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .flatMap(leased -> leased
+                                    ? loadAndPublish(key, loader)
+                                    : waitForOtherInstance(key, notBefore, loader));
+                });
+    }
+
+    private Mono<Entry> loadAndPublish(String key, Supplier<Mono<byte[]>> loader) {
+        return load(loader)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(e -> repository.publish(key, gzip(e.body()), e.fetchedAt()))
+                .doOnError(e -> repository.releaseLease(key, instanceId));
+    }
+
+    /**
+     * Another instance holds the lease: poll L2 for its result, and fetch ourselves if it never shows up.
+     */
+    private Mono<Entry> waitForOtherInstance(String key, Instant notBefore, Supplier<Mono<byte[]>> loader) {
+        long polls = LEASE.toMillis() / LEASE_POLL.toMillis();
+        return Mono.fromCallable(() -> readFresh(key, notBefore))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(fresh -> fresh.map(Mono::just).orElseGet(Mono::empty))
+                .repeatWhenEmpty(attempts -> attempts.take(polls).delayElements(LEASE_POLL))
+                .switchIfEmpty(Mono.defer(() -> load(loader)));
+    }
+
+    private Optional<Entry> readFresh(String key, Instant notBefore) {
+        return repository.findById(key)
+                .filter(e -> e.getBody() != null && e.getFetchedAt() != null && !isExpired(e.getFetchedAt())
+                        && !e.getFetchedAt().isBefore(notBefore))
+                .map(e -> new Entry(gunzip(e.getBody()), e.getFetchedAt()));
+    }
+
+    private boolean isExpired(Instant fetchedAt) {
+        return fetchedAt.plus(ttl).isBefore(Instant.now());
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
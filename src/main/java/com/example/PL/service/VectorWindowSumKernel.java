@@ -0,0 +1,42 @@
+package com.example.PL.service;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * WindowSumKernel on jdk.incubator.vector: once the window is full, a lane-width block of rows is
+ * two loads and a subtraction. Only usable when the JVM runs with --add-modules jdk.incubator.vector;
+ * WindowSumKernel.select falls back to the scalar kernel otherwise.
+ *
+ * Prefix sums stay scalar, since each entry depends on the one before.
+ */
+public final class VectorWindowSumKernel implements WindowSumKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.length() + "x32";
+    }
+
+    @Override
+    public void prefixSums(int[] col, int[] prefix) {
+        prefix[0] = 0;
+        for (int i = 0; i < col.length; i++) prefix[i + 1] = prefix[i] + col[i];
+    }
+
+    @Override
+    public void windowSums(int[] prefix, int from, int to, int window, int[] out) {
+        int i = from;
+        // Rows before the window fills start at row 0
+        for (; i < to && i < window; i++) out[i - from] = prefix[i];
+
+        int lanes = SPECIES.length();
+        for (; i + lanes <= to; i += lanes) {
+            IntVector hi = IntVector.fromArray(SPECIES, prefix, i);
+            IntVector lo = IntVector.fromArray(SPECIES, prefix, i - window);
+            hi.sub(lo).intoArray(out, i - from);
+        }
+        for (; i < to; i++) out[i - from] = prefix[i] - prefix[i - window];
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.PL.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Saves the parsed bootstrap snapshot, every ingested player history and the per-player form
+ * states to one file on shutdown and periodically, and loads it back at startup so a restart
+ * doesn't begin cold.
+ *
+ * The restored snapshot keeps its original fetchedAt and is refreshed on the usual rules; the
+ * restored histories let incremental ingestion fetch only matches finished since the file was written.
+ * Form states are restored only if fpl.form.half-lives is unchanged, and continue from the restored
+ * histories (see FormFeatureService.advance).
+ *
+ * Apart from the form states, only the incremental ingestion state is kept here. In the element-summary and event-live modes
+ * (see DatasetService.holdsHistories) the raw bodies live
+ * in the response cache under fpl.cache.dir instead: after a restart they are served from disk while
+ * fresh and revalidated with conditional requests after that, one per player.
+ */
+@Service
+public class WarmStartService {
+
+    private static final int MAGIC = 0x46504c57; // "FPLW"
+    private static final int FORMAT_VERSION = 3;
+    // Version 2 form states carry a rows hash that is no longer used; it is skipped
+    private static final int FORMAT_VERSION_HASHED_FORM = 2;
+    // Version 1 files end after the histories; they are still read, without form states
+    private static final int FORMAT_VERSION_NO_FORM = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8;
+    private static final int NULL = -1;
+
+    private final FplLookupService lookupService;
+    private final IncrementalIngestionService incrementalIngestion;
+    private final FormFeatureService formFeatures;
+    private final DatasetService datasetService;
+    private final Path file;
+    private final boolean enabled;
+
+    public WarmStartService(FplLookupService lookupService,
+                            IncrementalIngestionService incrementalIngestion,
+                            FormFeatureService formFeatures,
+                            DatasetService datasetService,
+                            @Value("${fpl.warm-start.file:.fpl-cache/warm-start.bin}") String file,
+                            @Value("${fpl.warm-start.enabled:true}") boolean enabled) {
+        this.lookupService = lookupService;
+        this.incrementalIngestion = incrementalIngestion;
+        this.formFeatures = formFeatures;
+        this.datasetService = datasetService;
+        this.file = Path.of(file);
+        this.enabled = enabled;
+        if (enabled) load();
+    }
+
+    @Scheduled(fixedDelayString = "${fpl.warm-start.interval:PT15M}", initialDelayString = "${fpl.warm-start.interval:PT15M}")
+    public void scheduledSave() {
+        if (enabled) save();
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        if (enabled) save();
+    }
+
+    public synchronized void save() {
+        BootstrapSnapshot snapshot = lookupService.peek();
+        Map<Integer, IncrementalIngestionService.PlayerHistory> histories = incrementalIngestion.snapshotState();
+        Map<Integer, FormState> forms = formFeatures.snapshotState();
+        if (snapshot == null && histories.isEmpty() && forms.isEmpty()) return;
+
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(1 << 20);
+            DataOutputStream out = new DataOutputStream(payload);
+            out.writeBoolean(snapshot != null);
+            if (snapshot != null) writeSnapshot(out, snapshot);
+            writeHistories(out, histories);
+            writeForms(out, formFeatures.signature(), forms);
+            out.flush();
+            byte[] body = payload.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(body);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(Instant.now().toEpochMilli())
+                    .putInt(body.length)
+                    .putLong(crc.getValue());
+
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer[] parts = {header.flip(), ByteBuffer.wrap(body)};
+                while (parts[1].hasRemaining()) ch.write(parts);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Warm-start file written: " + histories.size() + " player histories, "
+                    + forms.size() + " form states, " + (HEADER_BYTES + body.length) / 1024 + " KB");
+        } catch (IOException e) {
+            System.err.println("Failed to write warm-start file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+                System.err.println("Ignoring warm-start file " + file + ": unknown format");
+                return;
+            }
+            int version = buf.getInt();
+            if (version != FORMAT_VERSION && version != FORMAT_VERSION_HASHED_FORM && version != FORMAT_VERSION_NO_FORM) {
+                System.err.println("Ignoring warm-start file " + file + ": unknown format version " + version);
+                return;
+            }
+            Instant writtenAt = Instant.ofEpochMilli(buf.getLong());
+            int length = buf.getInt();
+            long expectedCrc = buf.getLong();
+            if (length != buf.remaining()) {
+                System.err.println("Ignoring warm-start file " + file + ": truncated");
+                return;
+            }
+
+            ByteBuffer body = buf.slice();
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if (crc.getValue() != expectedCrc) {
+                System.err.println("Ignoring warm-start file " + file + ": checksum mismatch");
+                return;
+            }
+
+            BootstrapSnapshot snapshot = body.get() != 0 ? readSnapshot(body) : null;
+            Map<Integer, IncrementalIngestionService.PlayerHistory> histories = readHistories(body);
+            Map<Integer, FormState> forms = version == FORMAT_VERSION_NO_FORM ? Map.of() : readForms(body, version);
+
+            if (snapshot != null) lookupService.seed(snapshot);
+            incrementalIngestion.restoreState(histories);
+            formFeatures.restoreState(forms);
+            System.out.println("Warm start from " + file + " (written " + writtenAt + "): "
+                    + (snapshot == null ? "no" : "1") + " bootstrap snapshot, " + histories.size() + " player histories, "
+                    + forms.size() + " form states");
+            if (!datasetService.holdsHistories()) {
+                System.out.println("Warm start: this fpl.ingest.mode reads element-summary per player; "
+                        + "those bodies come from the response cache, not this file");
+            }
+        } catch (NoSuchFileException e) {
+            // first run
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to load warm-start file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void writeSnapshot(DataOutputStream out, BootstrapSnapshot s) throws IOException {
+        out.writeLong(s.fetchedAt().toEpochMilli());
+
+        out.writeInt(s.players().size());
+        for (BootstrapSnapshot.Player p : s.players()) {
+            out.writeInt(p.id());
+            writeString(out, p.webName());
+            writeString(out, p.firstName());
+            writeString(out, p.secondName());
+            out.writeInt(p.teamId());
+            out.writeInt(p.positionId());
+            out.writeInt(p.nowCost() == null ? NULL : p.nowCost());
+            writeString(out, p.status());
+            out.writeDouble(p.form());
+            out.writeDouble(p.selectedByPercent());
+            out.writeInt(p.transfersInEvent());
+            out.writeInt(p.transfersOutEvent());
+            out.writeInt(p.totalPoints());
+            out.writeInt(p.chanceOfPlayingNextRound() == null ? NULL : p.chanceOfPlayingNextRound());
+        }
+
+        out.writeInt(s.teams().size());
+        for (BootstrapSnapshot.Team t : s.teams()) {
+            out.writeInt(t.id());
+            writeString(out, t.name());
+            writeString(out, t.shortName());
+        }
+
+        out.writeInt(s.positions().size());
+        for (BootstrapSnapshot.Position p : s.positions()) {
+            out.writeInt(p.id());
+            writeString(out, p.singularName());
+        }
+
+        out.writeInt(s.events().size());
+        for (BootstrapSnapshot.Event e : s.events()) {
+            out.writeInt(e.id());
+            out.writeLong(e.deadlineTime() == null ? Long.MIN_VALUE : e.deadlineTime().toInstant().toEpochMilli());
+            out.writeBoolean(e.finished());
+            out.writeBoolean(e.isCurrent());
+            out.writeBoolean(e.isNext());
+        }
+    }
+
+    private static BootstrapSnapshot readSnapshot(ByteBuffer in) {
+        Instant fetchedAt = Instant.ofEpochMilli(in.getLong());
+
+        int n = in.getInt();
+        List<BootstrapSnapshot.Player> players = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int id = in.getInt();
+            String webName = readString(in);
+            String firstName = readString(in);
+            String secondName = readString(in);
+            int teamId = in.getInt();
+            int positionId = in.getInt();
+            int nowCost = in.getInt();
+            String status = readString(in);
+            double form = in.getDouble();
+            double selectedBy = in.getDouble();
+            int transfersIn = in.getInt();
+            int transfersOut = in.getInt();
+            int totalPoints = in.getInt();
+            int chance = in.getInt();
+            players.add(new BootstrapSnapshot.Player(id, webName, firstName, secondName, teamId, positionId,
+                    nowCost == NULL ? null : nowCost, status, form, selectedBy, transfersIn, transfersOut,
+                    totalPoints, chance == NULL ? null : chance));
+        }
+
+        n = in.getInt();
+        List<BootstrapSnapshot.Team> teams = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            teams.add(new BootstrapSnapshot.Team(in.getInt(), readString(in), readString(in)));
+        }
+
+        n = in.getInt();
+        List<BootstrapSnapshot.Position> positions = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            positions.add(new BootstrapSnapshot.Position(in.getInt(), readString(in)));
+        }
+
+        n = in.getInt();
+        List<BootstrapSnapshot.Event> events = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int id = in.getInt();
+            long deadline = in.getLong();
+            events.add(new BootstrapSnapshot.Event(
+                    id,
+                    deadline == Long.MIN_VALUE ? null : OffsetDateTime.ofInstant(Instant.ofEpochMilli(deadline), ZoneOffset.UTC),
+                    in.get() != 0,
+                    in.get() != 0,
+                    in.get() != 0
+            ));
+        }
+
+        return BootstrapSnapshot.of(fetchedAt, players, teams, positions, events);
+    }
+
+    private static void writeHistories(DataOutputStream out,
+                                       Map<Integer, IncrementalIngestionService.PlayerHistory> histories) throws IOException {
+        out.writeInt(histories.size());
+        for (Map.Entry<Integer, IncrementalIngestionService.PlayerHistory> e : histories.entrySet()) {
+            IncrementalIngestionService.PlayerHistory h = e.getValue();
+            out.writeInt(e.getKey());
+            out.writeInt(h.lastFixtureId());
+            out.writeInt(h.lastGameweek());
+            out.writeInt(h.matches().size());
+            for (FeatureBuilderService.MatchStats m : h.matches()) {
+                out.writeInt(m.fixtureId());
+                out.writeInt(m.round() == null ? NULL : m.round());
+                out.writeInt(m.minutes());
+                out.writeInt(m.goals());
+                out.writeInt(m.assists());
+                out.writeInt(m.cleanSheets());
+                out.writeInt(m.saves());
+                out.writeInt(m.bonus());
+                out.writeInt(m.goalsConceded());
+                out.writeInt(m.cbi());
+                out.writeInt(m.yellow());
+                out.writeInt(m.red());
+                out.writeInt(m.ownGoals());
+                out.writeInt(m.penaltiesSaved());
+                out.writeInt(m.penaltiesMissed());
+                out.writeInt(m.opponentTeamId());
+                out.writeBoolean(m.wasHome());
+            }
+        }
+    }
+
+    private static Map<Integer, IncrementalIngestionService.PlayerHistory> readHistories(ByteBuffer in) {
+        int players = in.getInt();
+        Map<Integer, IncrementalIngestionService.PlayerHistory> out = new HashMap<>(players * 2);
+        for (int p = 0; p < players; p++) {
+            int playerId = in.getInt();
+            int lastFixtureId = in.getInt();
+            int lastGameweek = in.getInt();
+            int n = in.getInt();
+            List<FeatureBuilderService.MatchStats> matches = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int fixtureId = in.getInt();
+                int round = in.getInt();
+                matches.add(new FeatureBuilderService.MatchStats(
+                        fixtureId,
+                        round == NULL ? null : round,
+                        in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(),
+                        in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(),
+                        in.getInt(), in.getInt(),
+                        in.get() != 0
+                ));
+            }
+            out.put(playerId, new IncrementalIngestionService.PlayerHistory(List.copyOf(matches), lastFixtureId, lastGameweek));
+        }
+        return out;
+    }
+
+    private static void writeForms(DataOutputStream out, String signature, Map<Integer, FormState> forms) throws IOException {
+        writeString(out, signature);
+        out.writeInt(forms.size());
+        for (Map.Entry<Integer, FormState> e : forms.entrySet()) {
+            FormState s = e.getValue();
+            out.writeInt(e.getKey());
+            out.writeInt(s.matches());
+            out.writeInt(s.lastFixtureId());
+            out.writeInt(s.weights().length);
+            for (double w : s.weights()) out.writeDouble(w);
+            out.writeInt(s.sums().length);
+            for (double v : s.sums()) out.writeDouble(v);
+        }
+    }
+
+    /**
+     * Form states saved under the current half-lives; none if they were saved under others.
+     */
+    private Map<Integer, FormState> readForms(ByteBuffer in, int version) {
+        boolean sameHalfLives = formFeatures.signature().equals(readString(in));
+        int players = in.getInt();
+        Map<Integer, FormState> out = new HashMap<>(players * 2);
+        for (int p = 0; p < players; p++) {
+            int playerId = in.getInt();
+            int matches = in.getInt();
+            int lastFixtureId = in.getInt();
+            if (version == FORMAT_VERSION_HASHED_FORM) in.getLong();
+            double[] weights = new double[in.getInt()];
+            for (int i = 0; i < weights.length; i++) weights[i] = in.getDouble();
+            double[] sums = new double[in.getInt()];
+            for (int i = 0; i < sums.length; i++) sums[i] = in.getDouble();
+            if (sameHalfLives) out.put(playerId, formFeatures.restore(sums, weights, matches, lastFixtureId));
+        }
+        if (!sameHalfLives && players > 0) System.out.println("Warm start: fpl.form.half-lives changed, form states rebuilt on use");
+        return out;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len == NULL) return null;
+        byte[] bytes = new byte[len];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
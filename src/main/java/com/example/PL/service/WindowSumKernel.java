@@ -0,0 +1,49 @@
+package com.example.PL.service;
+
+/**
+ * Windowed sums over int stat columns, via per-column prefix sums: the sum over [i - w, i) is
+ * prefix[i] - prefix[i - w], so once a column's prefix is built every window is one subtraction
+ * per row, and rows are independent of each other (which is what the vector kernel exploits).
+ *
+ * Columns are struct-of-arrays: one int[] per stat, one entry per match.
+ */
+public interface WindowSumKernel {
+
+    String name();
+
+    /**
+     * prefix[i] = sum of col[0..i) for i in 0..n, so prefix must hold col.length + 1 entries.
+     */
+    void prefixSums(int[] col, int[] prefix);
+
+    /**
+     * out[k] = sum of the column over [max(0, i - window), i) for i = from + k, k < to - from,
+     * given its prefix sums. to may be up to col.length + 1 (the next, unplayed fixture).
+     */
+    void windowSums(int[] prefix, int from, int to, int window, int[] out);
+
+    /**
+     * windowSums for every column at once: out[s] gets column s's sums.
+     */
+    default void windowSums(int[][] prefix, int from, int to, int window, int[][] out) {
+        for (int s = 0; s < prefix.length; s++) windowSums(prefix[s], from, to, window, out[s]);
+    }
+
+    /**
+     * The vector kernel when requested (or "auto") and the JVM was started with
+     * --add-modules jdk.incubator.vector; otherwise the scalar one.
+     */
+    static WindowSumKernel select(String mode) {
+        if ("scalar".equals(mode)) return new ScalarWindowSumKernel();
+        try {
+            // Loaded reflectively so this class still links when the incubator module is absent
+            return (WindowSumKernel) Class.forName("com.example.PL.service.VectorWindowSumKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if ("vector".equals(mode)) {
+                System.err.println("Vector window kernel unavailable (start the JVM with --add-modules jdk.incubator.vector), using scalar: " + e);
+            }
+            return new ScalarWindowSumKernel();
+        }
+    }
+}
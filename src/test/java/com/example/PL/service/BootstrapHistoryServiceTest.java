@@ -0,0 +1,47 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BootstrapHistoryServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private static BootstrapSnapshot snapshot(long epochSecond, int nowCost) {
+        BootstrapSnapshot.Player player = new BootstrapSnapshot.Player(7, "Player", "First", "Last",
+                1, 3, nowCost, "a", 0.0, 0.0, 0, 0, 0, null);
+        return BootstrapSnapshot.of(Instant.ofEpochSecond(epochSecond), List.of(player),
+                List.of(new BootstrapSnapshot.Team(1, "Team", "T")),
+                List.of(new BootstrapSnapshot.Position(3, "Midfielder")), List.of());
+    }
+
+    @Test
+    void tornLastFrameIsCutBeforeTheNextAppend() throws Exception {
+        Path file = dir.resolve("series.bin");
+        BootstrapHistoryService history = new BootstrapHistoryService(null, file.toString(), true);
+        history.record(snapshot(100, 50));
+        history.record(snapshot(200, 51));
+        long complete = Files.size(file);
+
+        // A write cut off part way: a length prefix promising more bytes than follow
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        BootstrapHistoryService reopened = new BootstrapHistoryService(null, file.toString(), true);
+        assertThat(reopened.frameCount()).isEqualTo(2);
+        assertThat(Files.size(file)).isEqualTo(complete);
+
+        reopened.record(snapshot(300, 52));
+        BootstrapHistoryService again = new BootstrapHistoryService(null, file.toString(), true);
+        assertThat(again.frameCount()).isEqualTo(3);
+        assertThat(again.valueAt(7, BootstrapHistoryService.Field.NOW_COST, Instant.ofEpochSecond(300))).isEqualTo(52);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ElementSummaryDecoderTest {
+
+    private final ElementSummaryDecoder decoder = new ElementSummaryDecoder(JsonMapper.builder().build());
+
+    private ElementSummaryDecoder.Decoded decode(String json) {
+        return decoder.decode(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decodesEveryHistoryColumn() {
+        var d = decode("""
+                {"history": [{
+                  "fixture": 12, "round": 3, "minutes": 90, "goals_scored": 1, "assists": 2,
+                  "clean_sheets": 1, "saves": 4, "bonus": 3, "goals_conceded": 0,
+                  "clearances_blocks_interceptions": 11, "yellow_cards": 1, "red_cards": 0,
+                  "own_goals": 0, "penalties_saved": 1, "penalties_missed": 0,
+                  "opponent_team": 7, "was_home": true
+                }]}
+                """);
+
+        assertThat(d.size).isEqualTo(1);
+        assertThat(d.matchAt(0)).isEqualTo(new FeatureBuilderService.MatchStats(
+                12, 3, 90, 1, 2, 1, 4, 3, 0, 11, 1, 0, 0, 1, 0, 7, true));
+    }
+
+    @Test
+    void nullRoundDecodesAsNoRound() {
+        var d = decode("""
+                {"history": [
+                  {"fixture": 1, "round": null, "minutes": 45},
+                  {"fixture": 2, "round": 5, "minutes": 90}
+                ]}
+                """);
+
+        assertThat(d.history.hasRound(0)).isFalse();
+        assertThat(d.matchAt(0).round()).isNull();
+        assertThat(d.matchAt(1).round()).isEqualTo(5);
+    }
+
+    @Test
+    void missingStatsDecodeAsZero() {
+        var d = decode("""
+                {"history": [{"fixture": 9}]}
+                """);
+
+        var m = d.matchAt(0);
+        assertThat(m.fixtureId()).isEqualTo(9);
+        assertThat(m.round()).isNull();
+        assertThat(m.minutes()).isZero();
+        assertThat(m.cbi()).isZero();
+        assertThat(m.wasHome()).isFalse();
+    }
+
+    @Test
+    void unknownFieldsAreSkipped() {
+        var d = decode("""
+                {"unknown_top": {"nested": [1, 2, {"fixture": 99}]},
+                 "history": [{
+                   "fixture": 4, "expected_goals": "0.31", "extra": {"a": [1, {"b": 2}]},
+                   "minutes": 60, "tags": ["x", "y"], "was_home": false
+                 }],
+                 "fixtures": [{"id": 50, "event": 6, "is_home": true, "difficulty": 3,
+                               "team_h": 1, "team_a": 2, "kickoff_time": "2025-01-01T15:00:00Z"}],
+                 "history_past": []}
+                """);
+
+        assertThat(d.size).isEqualTo(1);
+        assertThat(d.matchAt(0).fixtureId()).isEqualTo(4);
+        assertThat(d.matchAt(0).minutes()).isEqualTo(60);
+        assertThat(d.fixtures).containsExactly(new ElementSummaryDecoder.UpcomingFixture(50, 6, true, 3, 1, 2));
+    }
+
+    @Test
+    void rejectsRowWithoutFixtureId() {
+        assertThatThrownBy(() -> decode("""
+                {"history": [{"fixture": 1, "minutes": 90}, {"round": 2, "minutes": 90}]}
+                """))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("row 1");
+    }
+
+    @Test
+    void rejectsNullFixtureId() {
+        assertThatThrownBy(() -> decode("""
+                {"history": [{"fixture": null, "minutes": 90}]}
+                """))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
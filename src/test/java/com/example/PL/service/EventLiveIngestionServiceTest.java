@@ -0,0 +1,114 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventLiveIngestionServiceTest {
+
+    private static final int TEAM = 3;
+    private static final List<FixtureIndex.Fixture> DOUBLE = List.of(
+            new FixtureIndex.Fixture(101, 20, null, TEAM, 8, 2, 4, true, 1, 0, 0),
+            new FixtureIndex.Fixture(102, 20, null, 9, TEAM, 3, 3, true, 2, 2, 1)
+    );
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private List<FeatureBuilderService.MatchStats> split(String element) {
+        JsonNode el = mapper.readTree(element);
+        List<EventLiveIngestionService.OrderedMatch> out = new ArrayList<>();
+        EventLiveIngestionService.splitDoubleGameweek(20, DOUBLE, TEAM, el, out);
+        return out.stream().map(EventLiveIngestionService.OrderedMatch::stats).toList();
+    }
+
+    @Test
+    void unexplainedStatsGoToTheRemainderFixture() {
+        // A midfielder: 2 saves, 3 goals conceded and 6 CBI score nothing, so explain leaves them out
+        var rows = split("""
+                {"id": 77,
+                 "stats": {"minutes": 150, "goals_scored": 1, "saves": 2, "goals_conceded": 3,
+                           "clearances_blocks_interceptions": 6, "bonus": 1},
+                 "explain": [
+                   {"fixture": 101, "stats": [{"identifier": "minutes", "points": 2, "value": 90},
+                                              {"identifier": "goals_scored", "points": 5, "value": 1}]},
+                   {"fixture": 102, "stats": [{"identifier": "minutes", "points": 2, "value": 60},
+                                              {"identifier": "bonus", "points": 1, "value": 1}]}
+                 ]}
+                """);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).minutes()).isEqualTo(90);
+        assertThat(rows.get(1).minutes()).isEqualTo(60);
+        assertThat(rows.get(0).goals()).isEqualTo(1);
+        assertThat(rows.get(1).bonus()).isEqualTo(1);
+        assertThat(rows.get(0).saves() + rows.get(1).saves()).isEqualTo(2);
+        assertThat(rows.get(0).goalsConceded() + rows.get(1).goalsConceded()).isEqualTo(3);
+        assertThat(rows.get(0).cbi() + rows.get(1).cbi()).isEqualTo(6);
+    }
+
+    @Test
+    void partlyExplainedStatKeepsItsRemainder() {
+        // 4 saves scored a point in fixture 102; the other 3 saves (in 101) didn't reach the threshold
+        var rows = split("""
+                {"id": 1,
+                 "stats": {"minutes": 180, "saves": 7},
+                 "explain": [
+                   {"fixture": 101, "stats": [{"identifier": "minutes", "points": 2, "value": 90}]},
+                   {"fixture": 102, "stats": [{"identifier": "minutes", "points": 2, "value": 90},
+                                              {"identifier": "saves", "points": 1, "value": 4}]}
+                 ]}
+                """);
+
+        assertThat(rows.get(1).saves()).isEqualTo(4);
+        assertThat(rows.get(0).saves()).isEqualTo(3);
+    }
+
+    @Test
+    void remainderGoesToTheFirstFixtureThePlayerFeaturedIn() {
+        var rows = split("""
+                {"id": 2,
+                 "stats": {"minutes": 30, "clearances_blocks_interceptions": 4},
+                 "explain": [
+                   {"fixture": 102, "stats": [{"identifier": "minutes", "points": 1, "value": 30}]}
+                 ]}
+                """);
+
+        assertThat(rows.get(0).minutes()).isZero();
+        assertThat(rows.get(0).cbi()).isZero();
+        assertThat(rows.get(1).minutes()).isEqualTo(30);
+        assertThat(rows.get(1).cbi()).isEqualTo(4);
+    }
+
+    @Test
+    void explainExceedingTotalsFallsBackToTotals() {
+        var rows = split("""
+                {"id": 3,
+                 "stats": {"minutes": 90, "bonus": 1},
+                 "explain": [
+                   {"fixture": 101, "stats": [{"identifier": "minutes", "points": 2, "value": 90},
+                                              {"identifier": "bonus", "points": 2, "value": 2}]}
+                 ]}
+                """);
+
+        assertThat(rows.get(0).bonus() + rows.get(1).bonus()).isEqualTo(1);
+        assertThat(rows).allSatisfy(r -> assertThat(r.bonus()).isNotNegative());
+    }
+
+    @Test
+    void rowsKeepFixtureSideAndOpponent() {
+        var rows = split("""
+                {"id": 4, "stats": {"minutes": 0}, "explain": []}
+                """);
+
+        assertThat(rows.get(0).fixtureId()).isEqualTo(101);
+        assertThat(rows.get(0).wasHome()).isTrue();
+        assertThat(rows.get(0).opponentTeamId()).isEqualTo(8);
+        assertThat(rows.get(1).wasHome()).isFalse();
+        assertThat(rows.get(1).opponentTeamId()).isEqualTo(9);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeatureSpecTest {
+
+    private static final String ALL_STATS = "minutes,points,goals,assists,saves,clean-sheets,bonus,goals-conceded,cbi,yellow,red";
+
+    @Test
+    void rejectsTheCoreWindow() {
+        assertThatThrownBy(() -> new FeatureSpec("3," + DatasetService.WINDOW + ",10", true, ALL_STATS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("core window");
+    }
+
+    @Test
+    void namesNeverCollideWithTheCoreColumns() {
+        FeatureSpec spec = new FeatureSpec("3,10", true, ALL_STATS);
+        String header = new DatasetService(null, null, null, null, null, null, null, null,
+                new MatchHistoryStore("unused", 0.25), null, spec,
+                new FormFeatureService("2,4,8"), "element-summary")
+                .trainingCsvHeader();
+
+        assertThat(Arrays.stream(header.trim().split(","))).doesNotHaveDuplicates();
+        assertThat(spec.names()).contains("avgPoints3", "avgPoints10", "avgPointsSeason").doesNotContain("avgPoints5");
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FormFeatureServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private static FeatureBuilderService.MatchStats match(int fixtureId, int minutes, int goals, int bonus) {
+        return new FeatureBuilderService.MatchStats(fixtureId, fixtureId, minutes, goals, 0, 0, 0, bonus, 0, 0,
+                0, 0, 0, 0, 0, 4, true);
+    }
+
+    private static List<FeatureBuilderService.MatchStats> history(int n) {
+        List<FeatureBuilderService.MatchStats> out = new ArrayList<>();
+        for (int f = 1; f <= n; f++) out.add(match(f, 30 + 7 * f % 61, f % 3 == 0 ? 1 : 0, f % 4));
+        return out;
+    }
+
+    /** Any points column will do; form only needs the history to have been scored. */
+    private static MatchHistory scored(List<FeatureBuilderService.MatchStats> rows) {
+        MatchHistory h = MatchHistory.of(rows);
+        int[] points = new int[h.size()];
+        for (int i = 0; i < points.length; i++) points[i] = (h.minutes[i] >= 60 ? 2 : 1) + 3 * h.goals[i] + h.bonus[i];
+        return h.withCustomPoints(points);
+    }
+
+    @Test
+    void advanceAddsOnlyNewMatches() {
+        FormFeatureService form = new FormFeatureService("2,4,8");
+        List<FeatureBuilderService.MatchStats> rows = history(12);
+
+        form.advance(7, scored(rows.subList(0, 8)));
+        MatchHistory full = scored(rows);
+        assertThat(form.advance(7, full)).containsExactly(form.forward(full, 12, 13));
+    }
+
+    @Test
+    void correctedStoredRowRebuildsTheState() {
+        FormFeatureService form = new FormFeatureService("2,4,8");
+        MatchHistoryStore store = new MatchHistoryStore(dir.toString(), 0.25);
+        store.onSuperseded((season, playerId) -> form.invalidate(playerId));
+
+        List<FeatureBuilderService.MatchStats> rows = history(10);
+        store.append("2025-26", Map.of(7, rows));
+        form.advance(7, scored(rows));
+
+        // Bonus on fixture 3 was corrected upstream; the last fixture id is unchanged
+        List<FeatureBuilderService.MatchStats> corrected = new ArrayList<>(rows);
+        corrected.set(2, match(3, rows.get(2).minutes(), rows.get(2).goals(), 3));
+        corrected.add(match(11, 90, 1, 0));
+        store.append("2025-26", Map.of(7, corrected));
+        store.close();
+
+        MatchHistory full = scored(corrected);
+        assertThat(form.advance(7, full)).containsExactly(form.forward(full, 11, 12));
+    }
+
+    @Test
+    void restoredStateContinuesLikeTheOriginal() {
+        FormFeatureService form = new FormFeatureService("2,4,8");
+        List<FeatureBuilderService.MatchStats> rows = history(9);
+        form.advance(7, scored(rows.subList(0, 6)));
+
+        FormFeatureService restored = new FormFeatureService("2,4,8");
+        Map<Integer, FormState> saved = form.snapshotState();
+        FormState s = saved.get(7);
+        restored.restoreState(Map.of(7, restored.restore(s.sums(), s.weights(), s.matches(), s.lastFixtureId())));
+
+        MatchHistory full = scored(rows);
+        assertThat(restored.advance(7, full)).containsExactly(form.advance(7, full));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FplConcurrencyLimiterTest {
+
+    private static FplConcurrencyLimiter limiter(int limit) {
+        Duration timeout = Duration.ofSeconds(5);
+        return new FplConcurrencyLimiter(limit, 1, limit, Duration.ofSeconds(2), 0, Duration.ofMillis(1),
+                timeout, timeout, timeout, timeout);
+    }
+
+    @Test
+    void cancellingHolderAndWaiterFreesTheSlot() {
+        FplConcurrencyLimiter limiter = limiter(1);
+
+        Disposable holder = limiter.execute("x", Mono::never).subscribe();
+        Disposable waiter = limiter.execute("x", () -> Mono.just(1)).subscribe();
+        assertThat(limiter.stats().inFlight()).isEqualTo(1);
+
+        waiter.dispose();
+        holder.dispose();
+
+        assertThat(limiter.stats().inFlight()).isZero();
+        assertThat(limiter.execute("x", () -> Mono.just(2)).block(Duration.ofSeconds(1))).isEqualTo(2);
+    }
+
+    @Test
+    void siblingCancellationsNeverLeakPermits() {
+        FplConcurrencyLimiter limiter = limiter(4);
+
+        for (int round = 0; round < 300; round++) {
+            int failAt = ThreadLocalRandom.current().nextInt(16);
+            Flux.range(0, 16)
+                    .flatMap(i -> limiter.execute("x", () -> i == failAt
+                            ? Mono.<Integer>error(new IllegalArgumentException("boom"))
+                            : Mono.delay(Duration.ofNanos(ThreadLocalRandom.current().nextInt(500_000))).thenReturn(i)), 16)
+                    .then()
+                    .onErrorResume(e -> Mono.empty())
+                    .block(Duration.ofSeconds(10));
+        }
+
+        // Sibling calls cancelled mid-flight release on another thread; give them a moment
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (limiter.stats().inFlight() != 0 && System.nanoTime() < deadline) Thread.onSpinWait();
+        assertThat(limiter.stats().inFlight()).isZero();
+        assertThat(Flux.range(0, 4).flatMap(i -> limiter.execute("x", () -> Mono.just(i))).count()
+                .block(Duration.ofSeconds(1))).isEqualTo(4);
+    }
+
+    @Test
+    void onlyExhaustedRetryableErrorsCountAsDropped() {
+        FplConcurrencyLimiter limiter = limiter(2);
+
+        assertThatThrownBy(() -> limiter.execute("x", () -> Mono.error(
+                new WebClientResponseException(404, "Not Found", null, null, null))).block(Duration.ofSeconds(1)))
+                .isInstanceOf(WebClientResponseException.class);
+        assertThat(limiter.stats().dropped()).isZero();
+        assertThat(limiter.stats().failed()).isEqualTo(1);
+
+        // No retries configured, so a 503 is shed straight away
+        assertThatThrownBy(() -> limiter.execute("x", () -> Mono.error(
+                new WebClientResponseException(503, "Service Unavailable", null, null, null))).block(Duration.ofSeconds(1)))
+                .isInstanceOf(WebClientResponseException.class);
+        assertThat(limiter.stats().dropped()).isEqualTo(1);
+        assertThat(limiter.stats().failed()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchHistoryStoreTest {
+
+    private static final String SEASON = "2025-26";
+
+    @TempDir
+    Path dir;
+
+    private static FeatureBuilderService.MatchStats match(int fixtureId, int round, int minutes, int bonus) {
+        return new FeatureBuilderService.MatchStats(fixtureId, round, minutes, 0, 0, 0, 0, bonus, 0, 0,
+                0, 0, 0, 0, 0, 4, true);
+    }
+
+    @Test
+    void unchangedRowsAreNotAppendedAgain() {
+        MatchHistoryStore store = new MatchHistoryStore(dir.toString(), 0.25);
+        assertThat(store.append(SEASON, Map.of(7, List.of(match(1, 1, 90, 0))))).isEqualTo(1);
+        assertThat(store.append(SEASON, Map.of(7, List.of(match(1, 1, 90, 0), match(2, 2, 60, 0))))).isEqualTo(1);
+
+        assertThat(store.slice(SEASON, 7).toMatchStats()).containsExactly(match(1, 1, 90, 0), match(2, 2, 60, 0));
+        assertThat(store.rowCount(SEASON)).isEqualTo(2);
+        store.close();
+    }
+
+    @Test
+    void correctedRowSupersedesThePlayersEarlierRows() {
+        MatchHistoryStore store = new MatchHistoryStore(dir.toString(), 0.25);
+        store.append(SEASON, Map.of(
+                7, List.of(match(1, 1, 90, 0), match(2, 2, 60, 0)),
+                8, List.of(match(1, 1, 45, 0))));
+
+        // Bonus on fixture 1 was corrected after the fact, and fixture 3 is new
+        int written = store.append(SEASON, Map.of(7, List.of(match(1, 1, 90, 2), match(2, 2, 60, 0), match(3, 3, 90, 0))));
+
+        assertThat(written).isEqualTo(3);
+        List<FeatureBuilderService.MatchStats> expected = List.of(match(1, 1, 90, 2), match(2, 2, 60, 0), match(3, 3, 90, 0));
+        assertThat(store.slice(SEASON, 7).toMatchStats()).isEqualTo(expected);
+        assertThat(store.slice(SEASON, 8).toMatchStats()).containsExactly(match(1, 1, 45, 0));
+        store.close();
+
+        MatchHistoryStore reopened = new MatchHistoryStore(dir.toString(), 0.25);
+        assertThat(reopened.slice(SEASON, 7).toMatchStats()).isEqualTo(expected);
+        assertThat(reopened.slice(SEASON, 8).toMatchStats()).containsExactly(match(1, 1, 45, 0));
+        assertThat(reopened.append(SEASON, Map.of(7, expected))).isZero();
+        reopened.close();
+    }
+
+    @Test
+    void compactionDropsSupersededRows() {
+        MatchHistoryStore store = new MatchHistoryStore(dir.toString(), 0.25);
+        store.append(SEASON, Map.of(
+                7, List.of(match(1, 1, 90, 0), match(2, 2, 60, 0)),
+                8, List.of(match(1, 1, 45, 0))));
+        store.append(SEASON, Map.of(7, List.of(match(1, 1, 90, 2), match(2, 2, 60, 0))));
+
+        // 2 of 5 rows dead is past the threshold: only the 3 live rows are left
+        assertThat(store.rowCount(SEASON)).isEqualTo(3);
+        assertThat(store.slice(SEASON, 7).toMatchStats()).containsExactly(match(1, 1, 90, 2), match(2, 2, 60, 0));
+        store.append(SEASON, Map.of(8, List.of(match(1, 1, 45, 0), match(2, 2, 90, 1))));
+        store.close();
+
+        MatchHistoryStore reopened = new MatchHistoryStore(dir.toString(), 0.25);
+        assertThat(reopened.rowCount(SEASON)).isEqualTo(4);
+        assertThat(reopened.slice(SEASON, 7).toMatchStats()).containsExactly(match(1, 1, 90, 2), match(2, 2, 60, 0));
+        assertThat(reopened.slice(SEASON, 8).toMatchStats()).containsExactly(match(1, 1, 45, 0), match(2, 2, 90, 1));
+        reopened.close();
+    }
+
+    @Test
+    void deadRowsBelowTheThresholdAreKept() {
+        MatchHistoryStore store = new MatchHistoryStore(dir.toString(), 0.9);
+        store.append(SEASON, Map.of(7, List.of(match(1, 1, 90, 0), match(2, 2, 60, 0))));
+        store.append(SEASON, Map.of(7, List.of(match(1, 1, 90, 2), match(2, 2, 60, 0))));
+
+        assertThat(store.rowCount(SEASON)).isEqualTo(4);
+        assertThat(store.slice(SEASON, 7).toMatchStats()).containsExactly(match(1, 1, 90, 2), match(2, 2, 60, 0));
+        store.close();
+    }
+
+    @Test
+    void uncommittedCompactionIsDiscardedOnOpen() throws Exception {
+        MatchHistoryStore store = new MatchHistoryStore(dir.toString(), 0.25);
+        store.append(SEASON, Map.of(7, List.of(match(1, 1, 90, 0), match(2, 2, 60, 0))));
+        store.close();
+
+        // Cut off before compact.done was written
+        Path partial = store.partition(SEASON).resolve("minutes.col.compact");
+        Files.write(partial, new byte[]{1, 2, 3, 4});
+
+        MatchHistoryStore reopened = new MatchHistoryStore(dir.toString(), 0.25);
+        assertThat(reopened.slice(SEASON, 7).toMatchStats()).containsExactly(match(1, 1, 90, 0), match(2, 2, 60, 0));
+        assertThat(partial).doesNotExist();
+        reopened.close();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.PL.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlayerTable lookups against the id maps they replaced, over one pass of a shuffled squad list
+ * the way the dataset and feature code walk it (team, position and name per player).
+ *
+ * Run with:
+ *   mvn -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main PlayerTableBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerTableBenchmark {
+
+    private static final int PLAYERS = 800;
+
+    private BootstrapSnapshot snapshot;
+    private int[] ids;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<BootstrapSnapshot.Player> players = new ArrayList<>(PLAYERS);
+        for (int id = 1; id <= PLAYERS; id++) {
+            players.add(new BootstrapSnapshot.Player(id, "Player" + id, "First", "Last" + id,
+                    1 + random.nextInt(20), 1 + random.nextInt(4), 40 + random.nextInt(100), "a",
+                    0.0, 0.0, 0, 0, 0, null));
+        }
+        List<BootstrapSnapshot.Team> teams = new ArrayList<>();
+        for (int id = 1; id <= 20; id++) teams.add(new BootstrapSnapshot.Team(id, "Team" + id, "T" + id));
+        List<BootstrapSnapshot.Position> positions = List.of(
+                new BootstrapSnapshot.Position(1, "Goalkeeper"), new BootstrapSnapshot.Position(2, "Defender"),
+                new BootstrapSnapshot.Position(3, "Midfielder"), new BootstrapSnapshot.Position(4, "Forward"));
+        snapshot = BootstrapSnapshot.of(Instant.EPOCH, players, teams, positions, List.of());
+
+        ids = new int[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) ids[i] = i + 1;
+        for (int i = PLAYERS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = ids[i]; ids[i] = ids[j]; ids[j] = t;
+        }
+    }
+
+    @Benchmark
+    public void maps(Blackhole bh) {
+        for (int id : ids) {
+            int teamId = snapshot.playerTeamIds().getOrDefault(id, -1);
+            int positionId = snapshot.playerPositionIds().getOrDefault(id, -1);
+            bh.consume(teamId);
+            bh.consume(snapshot.positionNames().get(positionId));
+            bh.consume(snapshot.teamNames().get(teamId));
+            bh.consume(snapshot.playerWebNames().get(id));
+        }
+    }
+
+    @Benchmark
+    public void table(Blackhole bh) {
+        PlayerTable table = snapshot.table();
+        for (int id : ids) {
+            int teamId = table.teamId(id, -1);
+            bh.consume(teamId);
+            bh.consume(table.positionName(table.positionId(id, -1), null));
+            bh.consume(table.teamName(teamId, null));
+            bh.consume(table.webName(id, null));
+        }
+    }
+}
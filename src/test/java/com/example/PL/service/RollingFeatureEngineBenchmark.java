@@ -0,0 +1,69 @@
+package com.example.PL.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Training rows' rolling averages for a season of players: the per-row baseline (one sublist
+ * average per row) against RollingFeatureEngine's single forward pass. RollingFeatureEngineTest
+ * checks the two agree.
+ *
+ * Run with:
+ *   mvn -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main RollingFeatureEngineBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RollingFeatureEngineBenchmark {
+
+    private static final int PLAYERS = 700;
+    private static final int MATCHES = 38;
+
+    private final List<List<FeatureBuilderService.MatchStats>> histories = new ArrayList<>();
+    private final List<int[]> points = new ArrayList<>();
+    private final List<int[][]> columns = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int p = 0; p < PLAYERS; p++) {
+            var history = RollingFeaturesBaseline.randomHistory(random, MATCHES);
+            int[] pts = RollingFeaturesBaseline.randomPoints(random, MATCHES);
+            histories.add(history);
+            points.add(pts);
+            columns.add(RollingFeatureEngine.columns(MatchHistory.of(history).withCustomPoints(pts)));
+        }
+    }
+
+    @Benchmark
+    public void baseline(Blackhole bh) {
+        for (int p = 0; p < PLAYERS; p++) {
+            bh.consume(RollingFeaturesBaseline.rows(histories.get(p), points.get(p), 1, MATCHES, DatasetService.WINDOW));
+        }
+    }
+
+    @Benchmark
+    public void engine(Blackhole bh) {
+        for (int[][] cols : columns) {
+            bh.consume(RollingFeatureEngine.forward(cols, 1, MATCHES, DatasetService.WINDOW));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingFeatureEngineTest {
+
+    private static final int WINDOW = DatasetService.WINDOW;
+
+    private final Random random = new Random(7);
+
+    private static int[][] columns(List<FeatureBuilderService.MatchStats> history, int[] points) {
+        return RollingFeatureEngine.columns(MatchHistory.of(history).withCustomPoints(points));
+    }
+
+    @Test
+    void forwardMatchesPerRowBaselineExactly() {
+        for (int n : new int[]{0, 1, 2, WINDOW - 1, WINDOW, WINDOW + 1, 38}) {
+            for (int trial = 0; trial < 20; trial++) {
+                var history = RollingFeaturesBaseline.randomHistory(random, n);
+                int[] points = RollingFeaturesBaseline.randomPoints(random, n);
+
+                // Every row including the next, unplayed fixture at row n
+                var expected = RollingFeaturesBaseline.rows(history, points, 0, n + 1, WINDOW);
+                var actual = RollingFeatureEngine.forward(columns(history, points), 0, n + 1, WINDOW);
+
+                assertThat(actual).as("n=%d", n).containsExactly(expected);
+            }
+        }
+    }
+
+    @Test
+    void forwardHonoursFromAndWindowsLongerThanTheHistory() {
+        var history = RollingFeaturesBaseline.randomHistory(random, 12);
+        int[] points = RollingFeaturesBaseline.randomPoints(random, 12);
+        int[][] cols = columns(history, points);
+
+        for (int window : new int[]{1, 3, 12, 40}) {
+            for (int from = 0; from <= 13; from++) {
+                assertThat(RollingFeatureEngine.forward(cols, from, 13, window))
+                        .as("window=%d from=%d", window, from)
+                        .containsExactly(RollingFeaturesBaseline.rows(history, points, from, 13, window));
+            }
+        }
+        assertThat(RollingFeatureEngine.forward(cols, 5, 5, WINDOW)).isEmpty();
+    }
+
+    @Test
+    void specPassMatchesBaselineForCoreAndExtraWindows() {
+        FeatureSpec spec = new FeatureSpec("3,10", true, "minutes,points,goals,bonus");
+        int[] windows = spec.windows();
+        int[] stats = spec.stats();
+
+        for (int n : new int[]{1, 4, 11, 38}) {
+            var history = RollingFeaturesBaseline.randomHistory(random, n);
+            int[] points = RollingFeaturesBaseline.randomPoints(random, n);
+            int[][] cols = columns(history, points);
+
+            var pass = RollingFeatureEngine.forward(cols, 1, n + 1, WINDOW, spec, 0, new ScalarWindowSumKernel());
+            assertThat(pass.core()).containsExactly(RollingFeaturesBaseline.rows(history, points, 1, n + 1, WINDOW));
+
+            for (int w = 0; w < windows.length; w++) {
+                var baseline = RollingFeaturesBaseline.rows(history, points, 1, n + 1, windows[w]);
+                for (int k = 0; k < baseline.length; k++) {
+                    double[] all = values(baseline[k]);
+                    for (int s = 0; s < stats.length; s++) {
+                        assertThat(pass.extra()[k * pass.width() + w * stats.length + s])
+                                .as("n=%d window=%d row=%d stat=%d", n, windows[w], k + 1, stats[s])
+                                .isEqualTo(all[stats[s]]);
+                    }
+                }
+            }
+
+            // Season-to-date over the whole history is the mean of every prior match
+            int last = n - 1;
+            int offset = last * pass.width() + windows.length * stats.length;
+            double[] seasonMeans = values(RollingFeaturesBaseline.rows(history, points, n, n + 1, n)[0]);
+            for (int s = 0; s < stats.length; s++) {
+                assertThat(pass.extra()[offset + s]).isEqualTo(seasonMeans[stats[s]]);
+            }
+        }
+    }
+
+    /**
+     * A RollingFeatures in RollingFeatureEngine column order.
+     */
+    private static double[] values(FeatureBuilderService.RollingFeatures f) {
+        return new double[]{f.avgMinutes5(), f.avgPoints5(), f.avgGoals5(), f.avgAssists5(), f.avgSaves5(),
+                f.avgCleanSheets5(), f.avgBonus5(), f.avgGoalsConceded5(), f.avgCbi5(), f.avgYellow5(), f.avgRed5()};
+    }
+}
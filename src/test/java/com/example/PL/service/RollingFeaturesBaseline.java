@@ -0,0 +1,89 @@
+package com.example.PL.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The per-row rolling averages DatasetService computed before RollingFeatureEngine: for row i,
+ * average each stat over the last windowEffective(i) = max(1, min(window, i)) prior matches.
+ * Kept here as the reference the engine is tested and benchmarked against.
+ */
+final class RollingFeaturesBaseline {
+
+    private RollingFeaturesBaseline() {}
+
+    static FeatureBuilderService.RollingFeatures rollingFeatures(List<FeatureBuilderService.MatchStats> priorMatches,
+                                                                 List<Integer> priorCustomPoints,
+                                                                 int window) {
+        int n = priorMatches.size();
+        int start = Math.max(0, n - window);
+
+        List<FeatureBuilderService.MatchStats> slice = priorMatches.subList(start, n);
+        List<Integer> minutes = new ArrayList<>();
+        List<Integer> goals = new ArrayList<>();
+        List<Integer> assists = new ArrayList<>();
+        List<Integer> saves = new ArrayList<>();
+        List<Integer> cs = new ArrayList<>();
+        List<Integer> bonus = new ArrayList<>();
+        List<Integer> gc = new ArrayList<>();
+        List<Integer> cbi = new ArrayList<>();
+        List<Integer> yellow = new ArrayList<>();
+        List<Integer> red = new ArrayList<>();
+        for (FeatureBuilderService.MatchStats m : slice) {
+            minutes.add(m.minutes());
+            goals.add(m.goals());
+            assists.add(m.assists());
+            saves.add(m.saves());
+            cs.add(m.cleanSheets());
+            bonus.add(m.bonus());
+            gc.add(m.goalsConceded());
+            cbi.add(m.cbi());
+            yellow.add(m.yellow());
+            red.add(m.red());
+        }
+
+        return new FeatureBuilderService.RollingFeatures(
+                avg(minutes), avg(priorCustomPoints.subList(start, n)), avg(goals), avg(assists), avg(saves),
+                avg(cs), avg(bonus), avg(gc), avg(cbi), avg(yellow), avg(red));
+    }
+
+    /**
+     * Rows from..to-1, one rollingFeatures call each; row n is the next, unplayed fixture.
+     */
+    static FeatureBuilderService.RollingFeatures[] rows(List<FeatureBuilderService.MatchStats> history, int[] points,
+                                                        int from, int to, int window) {
+        List<Integer> boxed = new ArrayList<>(points.length);
+        for (int p : points) boxed.add(p);
+        var out = new FeatureBuilderService.RollingFeatures[Math.max(0, to - from)];
+        for (int i = from; i < to; i++) {
+            int effectiveWindow = Math.max(1, Math.min(window, i));
+            out[i - from] = rollingFeatures(history.subList(0, i), boxed.subList(0, i), effectiveWindow);
+        }
+        return out;
+    }
+
+    static double avg(List<Integer> values) {
+        if (values.isEmpty()) return 0.0;
+        long sum = 0;
+        for (int v : values) sum += v;
+        return (double) sum / values.size();
+    }
+
+    static List<FeatureBuilderService.MatchStats> randomHistory(Random random, int n) {
+        List<FeatureBuilderService.MatchStats> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new FeatureBuilderService.MatchStats(1000 + i, i + 1, random.nextInt(91), random.nextInt(3),
+                    random.nextInt(3), random.nextInt(2), random.nextInt(8), random.nextInt(4), random.nextInt(5),
+                    random.nextInt(15), random.nextInt(2), random.nextInt(2), 0, 0, 0, 1 + random.nextInt(20),
+                    random.nextBoolean()));
+        }
+        return out;
+    }
+
+    static int[] randomPoints(Random random, int n) {
+        int[] points = new int[n];
+        for (int i = 0; i < n; i++) points[i] = random.nextInt(20) - 3;
+        return points;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    @Test
+    void concurrentCallersShareOneLoad() {
+        Sinks.One<Integer> upstream = Sinks.one();
+        var cache = new SingleFlightCache<Integer>("test", v -> stale.get(), v -> Instant.EPOCH,
+                last -> { loads.incrementAndGet(); return upstream.asMono(); });
+
+        Mono<Integer> a = cache.get();
+        Mono<Integer> b = cache.get();
+        a.subscribe();
+        b.subscribe();
+        upstream.tryEmitValue(7);
+
+        assertThat(a.block()).isEqualTo(7);
+        assertThat(b.block()).isEqualTo(7);
+        assertThat(cache.get().block()).isEqualTo(7);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedRefreshServesTheLastGoodValue() {
+        var cache = new SingleFlightCache<Integer>("test", v -> stale.get(), v -> Instant.EPOCH,
+                last -> loads.incrementAndGet() == 1 ? Mono.just(1) : Mono.error(new IllegalStateException("down")));
+
+        assertThat(cache.get().block()).isEqualTo(1);
+        stale.set(true);
+
+        assertThat(cache.get().block()).isEqualTo(1);
+        assertThatThrownBy(() -> cache.refresh().block()).hasMessageContaining("down");
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void loaderSeesThePreviousValue() {
+        stale.set(true);
+        var cache = new SingleFlightCache<Integer>("test", v -> stale.get(), v -> Instant.EPOCH,
+                last -> Mono.just(last == null ? 1 : last + 1));
+
+        cache.seed(10);
+        assertThat(cache.get().block()).isEqualTo(11);
+        assertThat(cache.get().block()).isEqualTo(12);
+        cache.invalidate();
+        assertThat(cache.peek()).isNull();
+        assertThat(cache.get().block()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredFplCacheTest {
+
+    private final TieredFplCache cache = new TieredFplCache(null, "l1", Duration.ofMinutes(5), 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Supplier<Mono<byte[]>> loader = () -> Mono.fromCallable(() -> new byte[]{(byte) loads.incrementAndGet()});
+
+    @Test
+    void hitKeepsTheOriginalFetchTime() throws InterruptedException {
+        TieredFplCache.Entry first = cache.getEntry("k", Instant.EPOCH, loader).block();
+        Thread.sleep(5);
+        TieredFplCache.Entry second = cache.getEntry("k", Instant.EPOCH, loader).block();
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.fetchedAt()).isEqualTo(first.fetchedAt());
+    }
+
+    @Test
+    void copyFetchedBeforeNotBeforeIsReloaded() throws InterruptedException {
+        TieredFplCache.Entry first = cache.getEntry("k", Instant.EPOCH, loader).block();
+        Thread.sleep(5);
+        Instant deadline = Instant.now();
+
+        TieredFplCache.Entry fresh = cache.getEntry("k", deadline, loader).block();
+
+        assertThat(loads).hasValue(2);
+        assertThat(fresh.body()).containsExactly(2);
+        assertThat(fresh.fetchedAt()).isAfterOrEqualTo(deadline).isAfter(first.fetchedAt());
+        // The reload replaced the L1 copy for everyone else too
+        assertThat(cache.get("k", loader).block()).containsExactly(2);
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.PL.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar against vector WindowSumKernel: every stat's windowed sums for the core window and the
+ * default fpl.features.windows, over a season of players. WindowSumKernelTest checks the two agree.
+ *
+ * Run with:
+ *   mvn -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main WindowSumKernelBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class WindowSumKernelBenchmark {
+
+    private static final int PLAYERS = 700;
+    private static final int MATCHES = 38;
+    private static final int[] WINDOWS = {DatasetService.WINDOW, 3, 10};
+
+    private final WindowSumKernel scalar = new ScalarWindowSumKernel();
+    private WindowSumKernel vector;
+    private int[][][] prefixes;
+    private int[] out;
+
+    @Setup
+    public void setup() {
+        vector = WindowSumKernel.select("vector");
+        if (!vector.name().startsWith("vector-")) throw new IllegalStateException("vector kernel unavailable");
+
+        Random random = new Random(42);
+        prefixes = new int[PLAYERS][RollingFeatureEngine.STATS][MATCHES + 1];
+        for (int[][] player : prefixes) {
+            for (int[] prefix : player) {
+                int[] col = new int[MATCHES];
+                for (int i = 0; i < MATCHES; i++) col[i] = random.nextInt(21) - 5;
+                scalar.prefixSums(col, prefix);
+            }
+        }
+        out = new int[MATCHES + 1];
+    }
+
+    private void windowSums(WindowSumKernel kernel, Blackhole bh) {
+        for (int[][] player : prefixes) {
+            for (int w : WINDOWS) {
+                for (int[] prefix : player) {
+                    kernel.windowSums(prefix, 1, MATCHES + 1, w, out);
+                    bh.consume(out[MATCHES - 1]);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void scalar(Blackhole bh) {
+        windowSums(scalar, bh);
+    }
+
+    @Benchmark
+    public void vector(Blackhole bh) {
+        windowSums(vector, bh);
+    }
+}
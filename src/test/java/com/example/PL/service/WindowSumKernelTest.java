@@ -0,0 +1,76 @@
+package com.example.PL.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowSumKernelTest {
+
+    private final WindowSumKernel scalar = new ScalarWindowSumKernel();
+    private final WindowSumKernel vector = WindowSumKernel.select("vector");
+
+    /** Sums col over [max(0, i - window), i) directly, no prefix sums. */
+    private static int[] naive(int[] col, int from, int to, int window) {
+        int[] out = new int[to - from];
+        for (int i = from; i < to; i++) {
+            for (int j = Math.max(0, i - window); j < i; j++) out[i - from] += col[j];
+        }
+        return out;
+    }
+
+    private void assertKernelsAgree(int[] col, int from, int to, int window) {
+        int[] expected = naive(col, from, to, window);
+        for (WindowSumKernel kernel : new WindowSumKernel[]{scalar, vector}) {
+            int[] prefix = new int[col.length + 1];
+            kernel.prefixSums(col, prefix);
+            int[] out = new int[to - from];
+            kernel.windowSums(prefix, from, to, window, out);
+            assertThat(out)
+                    .as("%s, n=%d from=%d to=%d window=%d", kernel.name(), col.length, from, to, window)
+                    .containsExactly(expected);
+        }
+    }
+
+    private static int[] column(Random random, int n) {
+        int[] col = new int[n];
+        // Points go negative, so the columns do too
+        for (int i = 0; i < n; i++) col[i] = random.nextInt(21) - 5;
+        return col;
+    }
+
+    @Test
+    void vectorKernelIsInUse() {
+        assertThat(vector.name()).startsWith("vector-");
+    }
+
+    @Test
+    void kernelsMatchOnRandomColumns() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 2000; trial++) {
+            int n = random.nextInt(80);
+            int[] col = column(random, n);
+            int to = n + 1 - random.nextInt(Math.min(n + 1, 3));
+            int from = random.nextInt(to + 1);
+            int window = 1 + random.nextInt(n + 10);
+            assertKernelsAgree(col, from, to, window);
+        }
+    }
+
+    @Test
+    void kernelsMatchOnEdgeShapes() {
+        Random random = new Random(11);
+        // Every length up to a few multiples of the widest species (16 ints), so every tail is hit
+        for (int n = 0; n <= 3 * 16 + 1; n++) {
+            int[] col = column(random, n);
+            for (int window : new int[]{1, 3, 5, 10, n, n + 1, n + 5}) {
+                if (window < 1) continue;
+                // Next unplayed fixture included (to = n + 1), the training range, and an empty range
+                assertKernelsAgree(col, 0, n + 1, window);
+                assertKernelsAgree(col, Math.min(1, n), n, window);
+                assertKernelsAgree(col, n + 1, n + 1, window);
+            }
+        }
+    }
+}